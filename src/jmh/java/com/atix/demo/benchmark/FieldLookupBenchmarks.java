@@ -0,0 +1,87 @@
+package com.atix.demo.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.atix.demo.utils.extraction.FieldResponseIndex;
+import com.atix.demo.utils.extraction.FieldUtils;
+import com.xirius.seiz.core.extraction.fields.FieldResponse;
+
+/**
+ * Lookups over the responses of an extraction, with the filters of {@link FieldUtils} and
+ * with a {@link FieldResponseIndex}. The {@code index*} benchmarks include building the
+ * index, as a mapper does once per extraction
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FieldLookupBenchmarks {
+
+	@Param({ "10", "100" })
+	int rows;
+
+	@Param({ "6" })
+	int cols;
+
+	@Param({ "20" })
+	int simpleFields;
+
+	private List<FieldResponse> responses;
+
+	@Setup
+	public void setup() {
+		responses = List.of(OcrFixtures.fieldResponses(simpleFields, rows, cols));
+	}
+
+	@Benchmark
+	public void tableLookup(Blackhole blackhole) {
+		for (int row = 0; row < rows; row++) {
+			for (int col = 0; col < cols; col++) {
+				blackhole.consume(FieldUtils.getTableElement(responses, row, col));
+			}
+		}
+	}
+
+	@Benchmark
+	public void indexTableLookup(Blackhole blackhole) {
+		FieldResponseIndex index = FieldUtils.index(responses);
+		for (int row = 0; row < rows; row++) {
+			for (int col = 0; col < cols; col++) {
+				blackhole.consume(index.getTableElement("Table", row, col));
+			}
+		}
+	}
+
+	@Benchmark
+	public void filters(Blackhole blackhole) {
+		blackhole.consume(FieldUtils.filterByFieldname(responses, "Field1.*"));
+		blackhole.consume(FieldUtils.filterBySubFieldId(responses, "0:.*"));
+		blackhole.consume(FieldUtils.filterBySimpleFields(responses));
+		blackhole.consume(FieldUtils.groupByPage(responses));
+	}
+
+	@Benchmark
+	public void indexFilters(Blackhole blackhole) {
+		FieldResponseIndex index = FieldUtils.index(responses);
+		blackhole.consume(index.filterByFieldname("Field1.*"));
+		blackhole.consume(index.getBySubFieldId("0:0"));
+		blackhole.consume(index.getSimpleFields());
+		blackhole.consume(index.groupByPage());
+	}
+}
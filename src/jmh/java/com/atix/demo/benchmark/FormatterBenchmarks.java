@@ -0,0 +1,49 @@
+package com.atix.demo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.atix.demo.service.extraction.impl.ConcentrationMeanFormatter;
+import com.atix.demo.utils.extraction.NumericFieldParser;
+
+/**
+ * Formatting of the values read by the OCR. Each invocation formats the whole set of
+ * sample values, which mixes decimal separators, units, signs and values without numbers
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FormatterBenchmarks {
+
+	private static final String[] VALUES = { "12,5", "12.5 mg/L", " 1 234,56 ", "-0.75%", "Media: 3,14159",
+			"sin valor", "", "0000012", "98,1 ppm (n=3)", "1.5E3" };
+
+	private final ConcentrationMeanFormatter formatter = new ConcentrationMeanFormatter();
+
+	@Benchmark
+	public void formatStringValue(Blackhole blackhole) {
+		for (String value : VALUES) {
+			blackhole.consume(formatter.formatStringValue("Mean", value));
+		}
+	}
+
+	@Benchmark
+	public void parseDecimal(Blackhole blackhole) {
+		for (String value : VALUES) {
+			blackhole.consume(NumericFieldParser.parseDecimal(value));
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package com.atix.demo.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.atix.demo.utils.mapper.Mappeable;
+import com.atix.demo.utils.mapper.MappeableIndex;
+import com.atix.demo.utils.mapper.MappeableUtils;
+
+/**
+ * Resolution of the formatter or mapper of a template type, with the linear scan of
+ * {@link MappeableUtils#getExactOrPartialMatch} and with a {@link MappeableIndex}. The
+ * types looked up mix exact matches, partial matches and unknown types
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperDispatchBenchmarks {
+
+	@Param({ "4", "64", "512" })
+	int registered;
+
+	private final Map<String, Mappeable<String>> map = new HashMap<>();
+	private MappeableIndex<Mappeable<String>> index;
+	private String[] types;
+
+	@Setup
+	public void setup() {
+		List<Mappeable<String>> mappeables = new ArrayList<>();
+		for (int i = 0; i < registered; i++) {
+			String type = "Template" + i;
+			mappeables.add(() -> List.of(type));
+		}
+		MappeableUtils.doMap(map, mappeables);
+		index = MappeableUtils.compileIndex(mappeables);
+		types = new String[] { "Template0", "Template" + (registered - 1), "Template" + (registered / 2) + "V2",
+				"OtherTemplate" };
+	}
+
+	@Benchmark
+	public void exactOrPartialMatch(Blackhole blackhole) {
+		for (String type : types) {
+			blackhole.consume(MappeableUtils.getExactOrPartialMatch(map, type));
+		}
+	}
+
+	@Benchmark
+	public void indexResolve(Blackhole blackhole) {
+		for (String type : types) {
+			blackhole.consume(index.resolve(type));
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package com.atix.demo.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.atix.demo.service.ocr.OcrBinaryCodec;
+import com.atix.demo.service.ocr.OcrConfidenceStatistics;
+import com.atix.demo.service.ocr.OcrConfidenceStatisticsCollector;
+import com.google.gson.Gson;
+import com.xirius.seiz.core.commons.model.text.DocumentSeiz;
+
+/**
+ * Reading of the OCR of a document: confidence statistics, binding to {@link DocumentSeiz}
+ * from the JSON and from its binary encoding, and the encoding itself
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OcrBenchmarks {
+
+	@Param({ "1", "10", "50" })
+	int pages;
+
+	@Param({ "300" })
+	int wordsPerPage;
+
+	private final Gson gson = new Gson();
+	private byte[] json;
+	private byte[] binary;
+
+	@Setup
+	public void setup() throws IOException {
+		json = OcrFixtures.ocrJson(pages, wordsPerPage);
+		binary = OcrBinaryCodec.encode(new ByteArrayInputStream(json));
+	}
+
+	@Benchmark
+	public OcrConfidenceStatistics confidenceStatistics() throws IOException {
+		return OcrConfidenceStatisticsCollector.collect(new ByteArrayInputStream(json));
+	}
+
+	@Benchmark
+	public DocumentSeiz parseJson() {
+		return gson.fromJson(new InputStreamReader(new ByteArrayInputStream(json), StandardCharsets.UTF_8),
+				DocumentSeiz.class);
+	}
+
+	@Benchmark
+	public DocumentSeiz parseBinary() {
+		return gson.fromJson(OcrBinaryCodec.decode(binary), DocumentSeiz.class);
+	}
+
+	@Benchmark
+	public byte[] encodeBinary() throws IOException {
+		return OcrBinaryCodec.encode(new ByteArrayInputStream(json));
+	}
+}
@@ -0,0 +1,116 @@
+package com.atix.demo.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+import com.google.gson.Gson;
+import com.xirius.seiz.core.extraction.fields.FieldResponse;
+
+/**
+ * Synthetic fixtures for the benchmarks. The documents follow the shape of the OCR JSON bound
+ * to {@code DocumentSeiz}: a list of pages, each with its confidence and its words, and each
+ * word with its text, confidence and bounding box. They are generated from a fixed seed, so
+ * every run measures the same content.
+ */
+final class OcrFixtures {
+
+	private static final long SEED = 42;
+	private static final String[] WORDS = { "Measuring", "Time", "Concentration", "Mean", "Sample", "Result",
+			"mg/L", "Lote", "Fecha", "Operador", "12,5", "1.234,56", "0.75", "-3,2", "ppm", "Total" };
+
+	private OcrFixtures() {
+	}
+
+	/**
+	 * Generates an OCR JSON document
+	 *
+	 * @param pages        the number of pages
+	 * @param wordsPerPage  the number of words of each page
+	 * @return the JSON document, in UTF-8
+	 */
+	static byte[] ocrJson(int pages, int wordsPerPage) {
+		Random random = new Random(SEED);
+		StringBuilder json = new StringBuilder(pages * wordsPerPage * 120);
+		json.append("{\"pages\":[");
+		for (int page = 0; page < pages; page++) {
+			if (page > 0) {
+				json.append(',');
+			}
+			json.append("{\"number\":").append(page + 1)
+					.append(",\"width\":2480,\"height\":3508,\"confidence\":").append(confidence(random))
+					.append(",\"words\":[");
+			for (int word = 0; word < wordsPerPage; word++) {
+				if (word > 0) {
+					json.append(',');
+				}
+				int x = 100 + (word % 12) * 180;
+				int y = 150 + (word / 12) * 45;
+				json.append("{\"text\":\"").append(WORDS[random.nextInt(WORDS.length)])
+						.append("\",\"confidence\":").append(confidence(random))
+						.append(",\"box\":{\"x\":").append(x).append(",\"y\":").append(y)
+						.append(",\"width\":").append(60 + random.nextInt(120))
+						.append(",\"height\":").append(30 + random.nextInt(10)).append("}}");
+			}
+			json.append("]}");
+		}
+		return json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Generates the responses of an extraction: simple fields and the cells of a table, spread
+	 * over several pages. Gson is used so the fixture does not depend on the setters of
+	 * {@link FieldResponse}
+	 *
+	 * @param simpleFields the number of simple fields
+	 * @param rows         the number of rows of the table
+	 * @param cols         the number of columns of the table
+	 * @return the responses, in extraction order
+	 */
+	static FieldResponse[] fieldResponses(int simpleFields, int rows, int cols) {
+		StringBuilder json = new StringBuilder("[");
+		for (int i = 0; i < simpleFields; i++) {
+			appendResponse(json, "Field" + i, null, i % 5 + 1, "Valor " + i);
+		}
+		for (int row = 0; row < rows; row++) {
+			for (int col = 0; col < cols; col++) {
+				appendResponse(json, "Table", row + ":" + col, row / 20 + 1, row + "," + col);
+			}
+		}
+		json.setLength(json.length() - 1);
+		return new Gson().fromJson(json.append(']').toString(), FieldResponse[].class);
+	}
+
+	/**
+	 * Reads a resource of the application
+	 *
+	 * @param name the name of the resource
+	 * @return its content
+	 */
+	static byte[] resource(String name) {
+		try (InputStream in = OcrFixtures.class.getClassLoader().getResourceAsStream(name)) {
+			if (in == null) {
+				throw new IllegalStateException("Resource not found: " + name);
+			}
+			return in.readAllBytes();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static void appendResponse(StringBuilder json, String fieldName, String subFieldId, int page,
+			String text) {
+		json.append("{\"fieldName\":\"").append(fieldName).append('"');
+		if (subFieldId != null) {
+			json.append(",\"subFieldId\":\"").append(subFieldId).append('"');
+		}
+		json.append(",\"pageNumber\":").append(page).append(",\"text\":\"").append(text).append("\"},");
+	}
+
+	private static String confidence(Random random) {
+		return String.format(Locale.ROOT, "%.4f", 0.5 + random.nextDouble() / 2);
+	}
+}
@@ -0,0 +1,74 @@
+package com.atix.demo.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.atix.demo.service.extraction.core.CompiledTemplate;
+import com.atix.demo.utils.extraction.InterfaceAdapter;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.xirius.seiz.core.commons.model.ROI;
+import com.xirius.seiz.core.extraction.model.DocumentExtractionTemplate;
+
+/**
+ * Parsing of {@code ConcentrationMeanTemplate.json} with the same Gson configuration as
+ * {@code TemplateService}, and its compilation
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TemplateBenchmarks {
+
+	private static final String TEMPLATE = "ConcentrationMeanTemplate.json";
+
+	private final Gson gson = new GsonBuilder().registerTypeAdapter(ROI.class, new InterfaceAdapter<ROI>()).create();
+	private byte[] template;
+	private JsonObject definition;
+
+	@Setup
+	public void setup() {
+		template = OcrFixtures.resource(TEMPLATE);
+		definition = JsonParser.parseReader(reader()).getAsJsonObject();
+	}
+
+	@Benchmark
+	public DocumentExtractionTemplate parseTemplate() {
+		return gson.fromJson(reader(), DocumentExtractionTemplate.class);
+	}
+
+	@Benchmark
+	public JsonObject parseDefinition() {
+		return JsonParser.parseReader(reader()).getAsJsonObject();
+	}
+
+	@Benchmark
+	public CompiledTemplate compileTemplate() {
+		return CompiledTemplate.compile("ConcentrationMean", "ConcentrationMeanTemplate", Path.of(TEMPLATE),
+				FileTime.fromMillis(0), definition, json -> gson.fromJson(json, DocumentExtractionTemplate.class));
+	}
+
+	private Reader reader() {
+		return new InputStreamReader(new ByteArrayInputStream(template), StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,14 @@
+/**
+ * JMH benchmarks of the extraction hot paths. They are compiled only with the {@code jmh}
+ * Maven profile and report throughput and, through the gc profiler, the allocation rate
+ * of each path:
+ *
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec
+ * mvn -Pjmh test-compile exec:exec -Djmh.include=OcrBenchmarks
+ * </pre>
+ *
+ * The results are also written to {@code target/jmh-result.json}, so runs before and after
+ * an optimization can be compared.
+ */
+package com.atix.demo.benchmark;
@@ -17,12 +17,20 @@ import java.math.BigDecimal;
 @AllArgsConstructor
 @Builder
 public class ConcentrationMean {
+    /**
+     * Cantidad de identificadores que se reservan en cada acceso a la secuencia
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     /**
      * Identificador único de la nota de crédito.
-     * Se genera automáticamente mediante la estrategia de incremento de identidad.
+     * Se genera mediante una secuencia con asignación por bloques, lo que permite que
+     * Hibernate agrupe las inserciones en lotes JDBC (con IDENTITY el batching se desactiva).
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "concentration_mean_seq")
+    @SequenceGenerator(name = "concentration_mean_seq", sequenceName = "ConcentrationMean_seq",
+            allocationSize = ConcentrationMean.ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(name="MeasuringTime")
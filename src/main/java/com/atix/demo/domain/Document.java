@@ -12,7 +12,9 @@ import java.util.UUID;
  * y su estado.
  */
 @Entity
-@Table(name = "Document")
+@Table(name = "Document", indexes = {
+        @Index(name = "ux_document_id_file", columnList = "id_file", unique = true)
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -30,7 +32,7 @@ public class Document {
 
     /**
      * Identificador único del archivo (UUID).
-     * Este campo es obligatorio y se almacena como BINARY(16) en la base de datos.
+     * Este campo es obligatorio, único e indexado, y se almacena como BINARY(16) en la base de datos.
      */
     @Column(name = "id_file", nullable = false, columnDefinition = "BINARY(16)")
     private UUID idFile;
@@ -33,5 +33,9 @@ public class ErrorCodes {
      * Error during validation
      */
     public static Integer VALIDATION_ERROR = 1007;
+    /**
+     * There is no capacity left to accept more extractions
+     */
+    public static final Integer EXTRACTION_CAPACITY_EXCEEDED = 1008;
 }
 
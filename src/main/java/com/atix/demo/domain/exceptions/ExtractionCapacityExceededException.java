@@ -0,0 +1,34 @@
+package com.atix.demo.domain.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.slf4j.event.Level;
+
+/**
+ * Exception to be thrown when there is no capacity left to accept more extractions.
+ */
+public class ExtractionCapacityExceededException extends GeneralException {
+
+    public ExtractionCapacityExceededException(String message) {
+        super(message);
+    }
+
+    @Override
+    public Integer getErrorCode() {
+        return ErrorCodes.EXTRACTION_CAPACITY_EXCEEDED;
+    }
+
+    @Override
+    public HttpStatus getHttpStatus() {
+        return HttpStatus.SERVICE_UNAVAILABLE;
+    }
+
+    @Override
+    public Level getLogLevel() {
+        return Level.WARN;
+    }
+
+    @Override
+    public boolean shouldLogThrowable() {
+        return false;
+    }
+}
@@ -0,0 +1,21 @@
+package com.atix.demo.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request to extract several documents at once
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class BatchExtRequestDTO {
+    private List<ExtRequestDTO> requests;
+    /**
+     * Maximum number of documents extracted at the same time. Optional
+     */
+    private Integer parallelism;
+}
@@ -0,0 +1,24 @@
+package com.atix.demo.dto;
+
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of one of the documents of a batch extraction
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class BatchExtResultDTO {
+    /**
+     * Position of the document in the batch request
+     */
+    private int index;
+    private UUID idFile;
+    private String status;
+    private ExtResponseDTO result;
+    private String error;
+}
@@ -15,5 +15,8 @@ import java.util.UUID;
 @Data
 public class ExtRequestDTO {
     private UUID idFile;
+    /**
+     * Template to be used. If it is not specified, it is identified from the OCR of the document
+     */
     private String idTemplate;
 }
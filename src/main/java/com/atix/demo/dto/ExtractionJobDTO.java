@@ -0,0 +1,24 @@
+package com.atix.demo.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Status of an asynchronous extraction
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class ExtractionJobDTO {
+    private UUID jobId;
+    private UUID idFile;
+    private String status;
+    private LocalDateTime submittedAt;
+    private LocalDateTime completedAt;
+    private ExtResponseDTO result;
+    private String error;
+}
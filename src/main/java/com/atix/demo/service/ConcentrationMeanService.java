@@ -2,11 +2,16 @@ package com.atix.demo.service;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.OptionalDouble;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.atix.demo.domain.ConcentrationMean;
@@ -15,9 +20,10 @@ import com.atix.demo.dto.ConcentrationMeanDTO;
 import com.atix.demo.repository.ConcentrationMeanRepository;
 import com.atix.demo.service.document.DetectDocumentService;
 import com.atix.demo.service.document.DocumentService;
+import com.atix.demo.service.ocr.OcrConfidenceStatistics;
+import com.atix.demo.service.ocr.OcrConfidenceStatisticsCollector;
+import com.atix.demo.service.ocr.OcrDocumentContext;
 import com.atix.demo.utils.mapper.ConcentrationMeanMapper;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import lombok.RequiredArgsConstructor;
 
@@ -25,17 +31,69 @@ import lombok.RequiredArgsConstructor;
 @Service
 @Transactional
 public class ConcentrationMeanService {
+    private static final Logger logger = LoggerFactory.getLogger(ConcentrationMeanService.class);
+
     private final ConcentrationMeanRepository concentrationMeanRepository;
     private final DocumentService documentService;
     private final ConcentrationMeanMapper mapper;
     private final DetectDocumentService detectDocumentService;
+    private final ConcentrationMeanWriteBehind writeBehind;
+
+    @Value("${persistence.write-behind.enabled:true}")
+    private boolean writeBehindEnabled;
+
+    @Value("${persistence.write-behind.await-seconds:30}")
+    private long writeBehindAwaitSeconds;
 
-    @Transactional
+    /**
+     * Guarda el resultado de una extracción. Si la escritura diferida está habilitada la fila
+     * se agrupa con las de otras solicitudes en una inserción por lotes; el método espera el
+     * commit del lote, por lo que al retornar el dato normalmente ya está guardado.
+     *
+     * <p>
+     * Si el lote falla, la excepción original (por ejemplo
+     * {@link com.atix.demo.domain.exceptions.DuplicateCreditNoteException}) se propaga sin
+     * envolver. Si la espera vence y la fila sigue en la cola, se retira y se informa el error,
+     * de modo que no quede guardada una fila que el cliente considera fallida; si la fila ya
+     * está siendo guardada se acepta como pendiente y se registra una advertencia.
+     *
+     * @param creditNoteDTO los datos extraídos
+     * @param document el documento del que se extrajeron los datos
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void save(ConcentrationMeanDTO creditNoteDTO, Document document) {
         ConcentrationMean creditNote = mapper.toEntity(creditNoteDTO);
         creditNote.setDocument(document);
 
-        save(creditNote);
+        if (!writeBehindEnabled) {
+            save(creditNote);
+            return;
+        }
+        CompletableFuture<ConcentrationMean> persisted = null;
+        try {
+            persisted = writeBehind.enqueue(creditNote);
+            persisted.get(writeBehindAwaitSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (persisted != null && !writeBehind.cancel(persisted)) {
+                logger.warn("Interrumpido con la fila del documento {} en proceso de guardado", document.getIdFile());
+            }
+            throw new IllegalStateException("Interrumpido mientras se guardaba el resultado", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("No se pudo guardar el resultado de la extracción", e.getCause());
+        } catch (TimeoutException e) {
+            if (writeBehind.cancel(persisted)) {
+                throw new IllegalStateException("No se pudo guardar el resultado de la extracción a tiempo", e);
+            }
+            logger.warn("La fila del documento {} no confirmó en {} s; queda pendiente de guardado",
+                    document.getIdFile(), writeBehindAwaitSeconds);
+        }
     }
 
     public ConcentrationMean save(ConcentrationMean concentrationMean)
@@ -43,82 +101,27 @@ public class ConcentrationMeanService {
         return concentrationMeanRepository.save(concentrationMean);
     }
 
-    public double getAverageConfidence(InputStream inputStream) throws IOException {
-        List<Double> confidenceValues = extractConfidenceValues(inputStream);
-        
-        OptionalDouble average = confidenceValues.stream()
-                .mapToDouble(Double::doubleValue)
-                .average();
-        
-        return average.orElse(0.0);
-    }
-
     /**
-     * Encuentra el valor mínimo de "confidence" en el archivo JSON OCR.
-     * 
+     * Calcula en una sola pasada las estadísticas de "confidence" del archivo JSON OCR:
+     * mínimo, máximo, promedio, percentiles y estadísticas por página.
+     *
      * @param inputStream Stream del archivo JSON OCR
-     * @return El valor mínimo de "confidence" encontrado
+     * @return las estadísticas de confianza encontradas
      * @throws IOException Si hay un error al leer o procesar el JSON
      */
-    public double getMinConfidence(InputStream inputStream) throws IOException {
-        List<Double> confidenceValues = extractConfidenceValues(inputStream);
-        
-        return confidenceValues.stream()
-                .mapToDouble(Double::doubleValue)
-                .min()
-                .orElse(0.0);
+    public OcrConfidenceStatistics getConfidenceStatistics(InputStream inputStream) throws IOException {
+        return OcrConfidenceStatisticsCollector.collect(inputStream);
     }
 
     /**
-     * Encuentra el valor máximo de "confidence" en el archivo JSON OCR.
-     * 
-     * @param inputStream Stream del archivo JSON OCR
-     * @return El valor máximo de "confidence" encontrado
+     * Obtiene las estadísticas de "confidence" del OCR compartido de una extracción, sin
+     * volver a descargar ni a recorrer el JSON si ya fueron calculadas.
+     *
+     * @param ocrContext el contexto OCR de la solicitud
+     * @return las estadísticas de confianza encontradas
      * @throws IOException Si hay un error al leer o procesar el JSON
      */
-    public double getMaxConfidence(InputStream inputStream) throws IOException {
-        List<Double> confidenceValues = extractConfidenceValues(inputStream);
-        
-        return confidenceValues.stream()
-                .mapToDouble(Double::doubleValue)
-                .max()
-                .orElse(0.0);
-    }
-
-    /**
-     * Método auxiliar para extraer todos los valores de "confidence" del JSON OCR.
-     * 
-     * @param inputStream Stream del archivo JSON OCR
-     * @return Lista con todos los valores de "confidence" encontrados
-     * @throws IOException Si hay un error al leer o procesar el JSON
-     */
-    private List<Double> extractConfidenceValues(InputStream inputStream) throws IOException {
-        List<Double> confidenceValues = new ArrayList<>();
-        ObjectMapper mapper = new ObjectMapper();
-        
-        // Reiniciamos el InputStream para asegurarnos de leerlo desde el principio
-        inputStream.reset();
-        
-        // Parseamos el JSON
-        JsonNode rootNode = mapper.readTree(inputStream);
-        JsonNode pagesNode = rootNode.path("pages");
-        
-        // Recorremos todas las páginas
-        for (JsonNode pageNode : pagesNode) {
-            // Obtenemos la confianza general de la página
-            if (pageNode.has("confidence")) {
-                confidenceValues.add(pageNode.path("confidence").asDouble());
-            }
-            
-            // Recorremos todas las palabras de la página
-            JsonNode wordsNode = pageNode.path("words");
-            for (JsonNode wordNode : wordsNode) {
-                if (wordNode.has("confidence")) {
-                    confidenceValues.add(wordNode.path("confidence").asDouble());
-                }
-            }
-        }
-        
-        return confidenceValues;
+    public OcrConfidenceStatistics getConfidenceStatistics(OcrDocumentContext ocrContext) throws IOException {
+        return ocrContext.getStatistics();
     }
 }
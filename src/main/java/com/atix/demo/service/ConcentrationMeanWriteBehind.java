@@ -0,0 +1,173 @@
+package com.atix.demo.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.atix.demo.domain.ConcentrationMean;
+import com.atix.demo.repository.ConcentrationMeanRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Buffer de escritura diferida para {@link ConcentrationMean}. Las filas encoladas por las
+ * distintas solicitudes se agrupan y se insertan en una sola transacción con inserciones en
+ * lote JDBC, cuando el lote alcanza {@code batchSize} filas o cuando pasa
+ * {@code flushIntervalMs} desde la primera fila pendiente.
+ *
+ * <p>
+ * Garantías de durabilidad:
+ * <ul>
+ * <li>El future devuelto por {@link #enqueue(ConcentrationMean)} se completa sólo después
+ * del commit de la fila, por lo que quien espera el future sabe que el dato está guardado.</li>
+ * <li>Si el lote falla, cada fila se reintenta en su propia transacción, de modo que una
+ * fila inválida no hace fallar a las demás.</li>
+ * <li>Si la cola está llena, la fila se guarda de forma síncrona en lugar de descartarse.</li>
+ * <li>Al detener la aplicación se vacía la cola antes de terminar.</li>
+ * </ul>
+ */
+@Component
+public class ConcentrationMeanWriteBehind {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConcentrationMeanWriteBehind.class);
+
+    private final ConcentrationMeanRepository concentrationMeanRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingWrite> queue;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long offerTimeoutMs;
+    private volatile boolean running;
+    private Thread flusher;
+
+    public ConcentrationMeanWriteBehind(ConcentrationMeanRepository concentrationMeanRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${persistence.write-behind.batch-size:100}") int batchSize,
+            @Value("${persistence.write-behind.flush-interval-ms:50}") long flushIntervalMs,
+            @Value("${persistence.write-behind.queue-capacity:10000}") int queueCapacity,
+            @Value("${persistence.write-behind.offer-timeout-ms:100}") long offerTimeoutMs) {
+        this.concentrationMeanRepository = concentrationMeanRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.offerTimeoutMs = offerTimeoutMs;
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        flusher = new Thread(this::flushLoop, "concentration-mean-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(30));
+        if (!queue.isEmpty()) {
+            logger.warn("{} filas pendientes no pudieron guardarse antes de detener la aplicación", queue.size());
+        }
+    }
+
+    /**
+     * Encola una fila para ser insertada en el próximo lote
+     *
+     * @param concentrationMean la entidad a guardar
+     * @return un future que se completa con la entidad guardada después del commit
+     * @throws InterruptedException si el hilo es interrumpido mientras espera lugar en la cola
+     */
+    public CompletableFuture<ConcentrationMean> enqueue(ConcentrationMean concentrationMean) throws InterruptedException {
+        PendingWrite write = new PendingWrite(concentrationMean, new CompletableFuture<>());
+        if (!running || !queue.offer(write, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+            logger.debug("Cola de escritura llena, guardando la fila de forma síncrona");
+            saveOne(write);
+        }
+        return write.persisted();
+    }
+
+    /**
+     * Retira de la cola una fila que todavía no fue tomada por el hilo de escritura
+     *
+     * @param persisted el future devuelto por {@link #enqueue(ConcentrationMean)}
+     * @return {@code true} si la fila se retiró y no será guardada, {@code false} si ya
+     *         está siendo guardada o ya se guardó
+     */
+    public boolean cancel(CompletableFuture<ConcentrationMean> persisted) {
+        if (!queue.removeIf(write -> write.persisted() == persisted)) {
+            return false;
+        }
+        persisted.cancel(false);
+        return true;
+    }
+
+    private void flushLoop() {
+        List<PendingWrite> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingWrite next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (RuntimeException e) {
+                logger.error("Error inesperado en la escritura diferida", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingWrite> batch) {
+        List<ConcentrationMean> entities = batch.stream().map(PendingWrite::entity).toList();
+        try {
+            List<ConcentrationMean> saved = transactionTemplate.execute(status -> concentrationMeanRepository.saveAll(entities));
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).persisted().complete(saved.get(i));
+            }
+            logger.debug("Lote de {} filas de ConcentrationMean guardado", batch.size());
+        } catch (RuntimeException e) {
+            logger.warn("Falló el lote de {} filas, reintentando una por una", batch.size(), e);
+            for (PendingWrite write : batch) {
+                write.entity().setId(null);
+                saveOne(write);
+            }
+        }
+    }
+
+    private void saveOne(PendingWrite write) {
+        try {
+            write.persisted().complete(transactionTemplate.execute(status -> concentrationMeanRepository.save(write.entity())));
+        } catch (RuntimeException e) {
+            write.persisted().completeExceptionally(e);
+        }
+    }
+
+    private record PendingWrite(ConcentrationMean entity, CompletableFuture<ConcentrationMean> persisted) {
+    }
+}
@@ -1,13 +1,17 @@
 package com.atix.demo.service.document;
 
 import com.atix.demo.domain.Document;
+import com.atix.demo.service.metrics.ExtractionMetrics;
+import com.atix.demo.service.metrics.ExtractionMetrics.Stage;
+import com.atix.demo.service.ocr.OcrCompletionListener;
+import com.atix.demo.service.ocr.OcrDocumentCache;
+import com.atix.demo.service.ocr.OcrDocumentContext;
+import com.atix.demo.service.storage.SignedUrlCache;
+import com.atix.demo.service.storage.SpilledObject;
 import com.atix.demo.service.storage.StorageProvider;
 import com.atix.demo.dto.DetectDocResponse;
 import com.atix.demo.domain.exceptions.InvalidExtensionException;
 import com.atix.demo.dto.DetectUrlRequest;
-import com.google.api.gax.paging.Page;
-import com.google.cloud.storage.Blob;
-import com.google.cloud.storage.BlobInfo;
 import com.j256.simplemagic.ContentInfo;
 import com.j256.simplemagic.ContentInfoUtil;
 import com.j256.simplemagic.ContentType;
@@ -17,13 +21,12 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Servicio encargado de procesar documentos para OCR y otras operaciones relacionadas.
@@ -39,9 +42,14 @@ public class DetectDocumentService {
     private static final int MAX_WAIT_MINUTES = 3;
     private static final int POLLING_INTERVAL_MS = 4200;
     private static final long MAX_FILE_SIZE_MB = 10L;
+    private static final long DOWNLOAD_LINK_MINUTES = 60L;
 
     private final DocumentService documentService;
     private final StorageProvider storageProvider;
+    private final OcrCompletionListener ocrCompletionListener;
+    private final OcrDocumentCache ocrDocumentCache;
+    private final SignedUrlCache signedUrlCache;
+    private final ExtractionMetrics extractionMetrics;
 
     @Value("${cloud.buckets.docs}")
     private String bucketDocs;
@@ -55,17 +63,47 @@ public class DetectDocumentService {
      * @param idFile el ID del archivo para el cual se realizará el OCR
      * @return un {@link InputStream} con el resultado del OCR
      * @throws InterruptedException si la operación es interrumpida
+     * @throws IOException si ocurre un error al leer el resultado
      */
-    public InputStream getOcrResult(String idFile) throws InterruptedException {
+    public InputStream getOcrResult(String idFile) throws InterruptedException, IOException {
+        return getOcrContext(idFile).openStream();
+    }
+
+    /**
+     * Obtiene el OCR para un idFile dado como un {@link OcrDocumentContext}. El resultado se
+     * descarga una sola vez y el contexto debe compartirse entre todas las etapas de la
+     * extracción en lugar de volver a solicitarlo. Los resultados ya descargados se toman de
+     * {@link OcrDocumentCache}.
+     *
+     * @param idFile el ID del archivo para el cual se realizará el OCR
+     * @return el contexto con el resultado del OCR
+     * @throws InterruptedException si la operación es interrumpida
+     * @throws IOException si ocurre un error al leer el resultado
+     */
+    public OcrDocumentContext getOcrContext(String idFile) throws InterruptedException, IOException {
+        OcrDocumentContext cached = ocrDocumentCache.get(idFile);
+        if (ocrDocumentCache.isEnabled()) {
+            extractionMetrics.ocrCacheLookup(cached != null);
+        }
+        if (cached != null) {
+            return cached;
+        }
         String path = buildPathForOcr(idFile);
 
         if (!isDocUploaded(idFile)) {
             throw new RuntimeException("Documento no encontrado");
         }
 
-        List<Blob> blobs = waitForOcrResults(path);
+        // El OCR es previo a la identificación de la plantilla, por eso no se etiqueta con ella
+        List<String> results = extractionMetrics.time(Stage.OCR_WAIT, null, () -> waitForOcrResults(idFile, path));
 
-        return new ByteArrayInputStream(blobs.get(0).getContent());
+        OcrDocumentContext context = extractionMetrics.time(Stage.OCR_DOWNLOAD, null, () -> {
+            try (InputStream content = storageProvider.openStream(bucketOcr, results.get(0))) {
+                return new OcrDocumentContext(idFile, content.readAllBytes());
+            }
+        });
+        ocrDocumentCache.put(context);
+        return context;
     }
 
     /**
@@ -99,6 +137,21 @@ public class DetectDocumentService {
         return storageProvider.getObject(bucketDocs, path);
     }
 
+    /**
+     * Copia el documento original a un archivo temporal local, para procesarlo sin
+     * mantenerlo completo en memoria.
+     *
+     * @param idFile el ID del archivo del documento
+     * @param test indica si es un entorno de prueba
+     * @return la copia local del documento, que debe cerrarse para eliminar el archivo
+     * @throws IOException si ocurre un error de entrada/salida
+     */
+    public SpilledObject spillOriginalDocument(UUID idFile, boolean test) throws IOException {
+        Document document = documentService.findByIdFile(idFile);
+        String path = buildPathDocument(idFile.toString(), document.getFileName(), test);
+        return storageProvider.spillToTempFile(bucketDocs, path);
+    }
+
     /**
      * Verifica la extensión de un archivo.
      *
@@ -163,55 +216,65 @@ public class DetectDocumentService {
      */
     private boolean isDocUploaded(String idFile) {
         String path = buildPathForOcr(idFile);
-        Page<Blob> blobs = (Page<Blob>) storageProvider.listFiles(bucketDocs, path);
-        return blobs.getValues().iterator().hasNext();
+        return storageProvider.hasObjects(bucketDocs, path);
     }
 
     /**
-     * Espera a que los resultados del OCR estén disponibles.
+     * Espera a que los resultados del OCR estén disponibles. El hilo se bloquea sobre la
+     * notificación de {@link OcrCompletionListener} y despierta en cuanto se publica; la
+     * consulta periódica del bucket se mantiene sólo como respaldo cada
+     * {@code POLLING_INTERVAL_MS} por si la notificación no llega.
      *
+     * @param idFile el ID del archivo cuyo OCR se espera
      * @param path la ruta donde se esperan los resultados del OCR
-     * @return una lista de {@link Blob} que contiene los resultados del OCR
+     * @return las rutas de los resultados del OCR, ordenadas por nombre
      * @throws InterruptedException si la operación es interrumpida
      */
-    private List<Blob> waitForOcrResults(String path) throws InterruptedException {
-        List<Blob> blobs = new ArrayList<>();
+    private List<String> waitForOcrResults(String idFile, String path) throws InterruptedException {
+        List<String> results = storageProvider.listObjectNames(bucketOcr, path);
         LocalDateTime startTime = LocalDateTime.now();
 
-        while (blobs.isEmpty()) {
-            blobs = getNonDirectoryBlobs(path);
-            if (blobs.isEmpty()) {
-                Thread.sleep(POLLING_INTERVAL_MS);
-            }
-            if (ChronoUnit.MINUTES.between(startTime, LocalDateTime.now()) > MAX_WAIT_MINUTES) {
-                throw new RuntimeException("Problema con OCR");
+        extractionMetrics.ocrWaitStarted();
+        try {
+            while (results.isEmpty()) {
+                if (ChronoUnit.MINUTES.between(startTime, LocalDateTime.now()) > MAX_WAIT_MINUTES) {
+                    throw new RuntimeException("Problema con OCR");
+                }
+                if (ocrCompletionListener.await(idFile, POLLING_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+                    logger.debug("Notificación de OCR recibida para idFile [{}]", idFile);
+                }
+                results = storageProvider.listObjectNames(bucketOcr, path);
             }
+        } finally {
+            extractionMetrics.ocrWaitEnded();
+            ocrCompletionListener.discard(idFile);
         }
 
-        return blobs.stream()
-                .sorted(Comparator.comparing(BlobInfo::getName))
-                .collect(Collectors.toList());
+        return results;
     }
 
     /**
-     * Obtiene los blobs que no son directorios en una ruta específica.
+     * Notifica que el resultado del OCR para un archivo ya fue escrito en el bucket de OCR,
+     * despertando a las solicitudes que lo estén esperando.
      *
-     * @param path la ruta donde se buscarán los blobs
-     * @return una lista de {@link Blob} que no son directorios
+     * @param idFile el ID del archivo cuyo OCR finalizó
      */
-    private List<Blob> getNonDirectoryBlobs(String path) {
-        Page<Blob> blobPage = (Page<Blob>) storageProvider.listFiles(bucketOcr, path);
-        List<Blob> blobs = new ArrayList<>();
-        for (Blob blob : blobPage.getValues()) {
-            if (!blob.isDirectory()) {
-                blobs.add(blob);
-            }
-        }
-        return blobs;
+    public void notifyOcrCompleted(String idFile) {
+        storageProvider.invalidateMetadata(bucketOcr, buildPathForOcr(idFile));
+        ocrDocumentCache.invalidate(idFile);
+        ocrCompletionListener.publish(idFile);
     }
 
+    /**
+     * Genera un link firmado para la descarga de un documento. Los links se reutilizan
+     * mientras conserven suficiente vigencia, evitando firmar uno nuevo en cada respuesta.
+     *
+     * @param path la ruta del documento en el bucket de documentos
+     * @return el link firmado de descarga
+     */
     public String generateDownloadUrl(String path) {
-        return storageProvider.getDownloadSignedUrl(bucketDocs, path, 60);
+        return signedUrlCache.getOrSign(bucketDocs, path, "GET", DOWNLOAD_LINK_MINUTES,
+                () -> storageProvider.getDownloadSignedUrl(bucketDocs, path, DOWNLOAD_LINK_MINUTES));
     }
 
 }
@@ -1,9 +1,14 @@
 package com.atix.demo.service.document;
 
+import java.time.Duration;
 import java.util.UUID;
 import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import lombok.RequiredArgsConstructor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.atix.demo.domain.Document;
 import com.atix.demo.domain.exceptions.DocumentNotFoundException;
 import com.atix.demo.repository.DocumentRepository;
@@ -11,10 +16,26 @@ import com.atix.demo.repository.DocumentRepository;
 /**
  * Servicio encargado de la gestión de documentos,
  */
-@RequiredArgsConstructor
 @Service
 public class DocumentService {
     private final DocumentRepository documentRepository;
+    /**
+     * Caché acotada de documentos por idFile. Guarda copias desacopladas del contexto de
+     * persistencia (nunca la entidad administrada) y las entradas se invalidan una vez que
+     * la transacción que guarda el documento confirma, para que una lectura concurrente no
+     * vuelva a cachear el estado anterior
+     */
+    private final Cache<UUID, Document> documentsByIdFile;
+
+    public DocumentService(DocumentRepository documentRepository,
+            @Value("${documents.cache.maximum-size:10000}") long maximumSize,
+            @Value("${documents.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.documentRepository = documentRepository;
+        this.documentsByIdFile = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
 
     /**
      * Guarda un documento en la base de datos.
@@ -24,7 +45,27 @@ public class DocumentService {
      */
     @Transactional
     public Document save(Document entity) {
-        return documentRepository.save(entity);
+        Document saved = documentRepository.save(entity);
+        invalidateAfterCommit(saved.getIdFile());
+        return saved;
+    }
+
+    /**
+     * Invalida la entrada en la caché inmediatamente y, si hay una transacción activa,
+     * nuevamente al confirmarla.
+     *
+     * @param idFile el UUID del documento modificado
+     */
+    private void invalidateAfterCommit(UUID idFile) {
+        documentsByIdFile.invalidate(idFile);
+        if (!TransactionSynchronizationManager.isSynchronizationActive())
+            return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                documentsByIdFile.invalidate(idFile);
+            }
+        });
     }
 
     /**
@@ -44,18 +85,34 @@ public class DocumentService {
     }
 
     /**
-     * Finds a document by its UUID
+     * Finds a document by its UUID. Found documents are cached, so repeated lookups
+     * during an extraction do not reach the database. The returned instance is a detached
+     * copy: changes must be persisted through {@link #save(Document)}
      *
      * @param idFile the UUID of the file
-     * @return the document with the provided UUID
+     * @return a detached copy of the document with the provided UUID
      * @throws DocumentNotFoundException if the document is not found
      */
     public Document findByIdFile(UUID idFile) throws DocumentNotFoundException {
-        Document doc = documentRepository.findByIdFile(idFile);
+        Document doc = documentsByIdFile.get(idFile, id -> detachedCopy(documentRepository.findByIdFile(id)));
         if (doc == null)
             throw new DocumentNotFoundException(
                     "El documento " + idFile.toString() + " no está registrado en el sistema");
-        return doc;
+        return detachedCopy(doc);
+    }
+
+    private static Document detachedCopy(Document doc) {
+        if (doc == null)
+            return null;
+        return Document.builder()
+                .id(doc.getId())
+                .idFile(doc.getIdFile())
+                .fileName(doc.getFileName())
+                .uploadDate(doc.getUploadDate())
+                .filePath(doc.getFilePath())
+                .message(doc.getMessage())
+                .status(doc.getStatus())
+                .build();
     }
 
 }
@@ -0,0 +1,136 @@
+package com.atix.demo.service.extraction.core;
+
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.xirius.seiz.core.extraction.model.DocumentExtractionTemplate;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * An extraction template that has already been read and parsed, together with the facts
+ * that the extraction pipeline needs to know about it. Instances are cached by
+ * {@link TemplateService} and shared between requests, so the contained
+ * {@link DocumentExtractionTemplate} must be treated as read-only.
+ */
+@AllArgsConstructor
+@Getter
+public class CompiledTemplate {
+    /**
+     * Field types whose extraction needs the rasterized pages of the document
+     */
+    public static final Set<String> IMAGE_FIELD_TYPES = Set.of("TABLE", "BARCODE");
+    private static final String REQUESTS = "requests";
+    private static final String REQUESTED_FIELDS = "requestedFields";
+
+    /**
+     * The class identifier used to look up the template
+     */
+    private final String classId;
+    /**
+     * The template identifier, used to find the mappers and formatters
+     */
+    private final String templateId;
+    /**
+     * Location of the template file
+     */
+    private final Path templatePath;
+    /**
+     * Modification stamp of the template file when it was compiled
+     */
+    private final FileTime lastModified;
+    private final DocumentExtractionTemplate template;
+    /**
+     * Whether any requested field needs the rasterized pages of the document
+     */
+    private final boolean requiresImages;
+    /**
+     * Pages and resolutions that must be rasterized for the template
+     */
+    private final RasterizationPlan rasterizationPlan;
+    /**
+     * Independent parts of the template, each with a single requested field, in the order
+     * of the template. Extracting every partition and concatenating the responses in this
+     * order is equivalent to extracting the whole template
+     */
+    private final List<DocumentExtractionTemplate> partitions;
+    /**
+     * Normalized synonyms of the search strategies of the template, used to classify
+     * documents
+     */
+    private final Set<String> keywords;
+
+    /**
+     * Compiles a parsed template, precomputing the facts used during extraction
+     *
+     * @param classId      the class identifier used to look up the template
+     * @param templateId   the template identifier
+     * @param templatePath the location of the template file
+     * @param lastModified the modification stamp of the template file
+     * @param definition   the JSON definition of the template
+     * @param binder       the function that parses a JSON definition into a template
+     * @return the compiled template
+     */
+    public static CompiledTemplate compile(String classId, String templateId, Path templatePath,
+            FileTime lastModified, JsonObject definition, Function<JsonObject, DocumentExtractionTemplate> binder) {
+        DocumentExtractionTemplate template = binder.apply(definition);
+        boolean requiresImages = template.getRequests().stream()
+                .flatMap(request -> request.getRequestedFields().stream())
+                .anyMatch(field -> IMAGE_FIELD_TYPES.contains(field.getType()));
+        return new CompiledTemplate(classId, templateId, templatePath, lastModified, template, requiresImages,
+                requiresImages ? RasterizationPlanner.plan(definition) : RasterizationPlan.NONE,
+                partition(definition, template, binder),
+                Collections.unmodifiableSet(TemplateKeywordIndex.keywords(definition)));
+    }
+
+    /**
+     * Splits a template into one template per requested field. Each part keeps the rest of
+     * the definition of its request (ROIs, field configurations)
+     */
+    private static List<DocumentExtractionTemplate> partition(JsonObject definition, DocumentExtractionTemplate template,
+            Function<JsonObject, DocumentExtractionTemplate> binder) {
+        JsonElement requests = definition.get(REQUESTS);
+        if (requests == null || !requests.isJsonArray()) {
+            return List.of(template);
+        }
+        List<DocumentExtractionTemplate> partitions = new ArrayList<>();
+        for (JsonElement request : requests.getAsJsonArray()) {
+            JsonElement fields = request.isJsonObject() ? request.getAsJsonObject().get(REQUESTED_FIELDS) : null;
+            if (fields == null || !fields.isJsonArray() || fields.getAsJsonArray().size() <= 1) {
+                partitions.add(binder.apply(withRequest(definition, request)));
+                continue;
+            }
+            for (JsonElement field : fields.getAsJsonArray()) {
+                JsonObject part = request.getAsJsonObject().deepCopy();
+                JsonArray partFields = new JsonArray(1);
+                partFields.add(field.deepCopy());
+                part.add(REQUESTED_FIELDS, partFields);
+                partitions.add(binder.apply(withRequest(definition, part)));
+            }
+        }
+        return partitions.size() <= 1 ? List.of(template) : Collections.unmodifiableList(partitions);
+    }
+
+    private static JsonObject withRequest(JsonObject definition, JsonElement request) {
+        JsonObject part = new JsonObject();
+        for (Map.Entry<String, JsonElement> entry : definition.entrySet()) {
+            if (!REQUESTS.equals(entry.getKey())) {
+                part.add(entry.getKey(), entry.getValue());
+            }
+        }
+        JsonArray requests = new JsonArray(1);
+        requests.add(request);
+        part.add(REQUESTS, requests);
+        return part;
+    }
+}
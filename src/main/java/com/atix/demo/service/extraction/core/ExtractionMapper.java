@@ -1,6 +1,7 @@
 package com.atix.demo.service.extraction.core;
 
 import com.xirius.seiz.core.extraction.fields.FieldResponse;
+import com.atix.demo.utils.extraction.FieldResponseIndex;
 import com.atix.demo.utils.mapper.Mappeable;
 
 import java.util.List;
@@ -27,8 +28,18 @@ import java.util.List;
  * If there are multiple matches of the same length there is no guarantee as for
  * which {@link ExtractionMapper}
  * (of the ones that match the criteria) will be used.
+ *
+ * @param <T> the type of the extracted data
  */
-public interface ExtractionMapper extends Mappeable<String> {
+public interface ExtractionMapper<T> extends Mappeable<String> {
+    /**
+     * Indicates the type of the data produced by this mapper, so that callers can
+     * request a mapper that produces the type they handle
+     *
+     * @return the class of the extracted data
+     */
+    Class<T> getResultType();
+
     /**
      * Maps the extraction response into a properly formatted Object
      *
@@ -38,5 +49,20 @@ public interface ExtractionMapper extends Mappeable<String> {
      *
      * @return an object containing the extracted data
      */
-    ExtractionMapperResult mapExtraction(List<FieldResponse> fieldResponses, String templateId);
+    ExtractionMapperResult<T> mapExtraction(List<FieldResponse> fieldResponses, String templateId);
+
+    /**
+     * Maps the extraction response into a properly formatted Object, using an index of
+     * the responses that is built once per extraction. Mappers that perform many lookups
+     * should override this method
+     *
+     * @param fieldResponses the index of the extraction responses
+     * @param templateId     the ID of the template that was used to extract the
+     *                       document
+     *
+     * @return an object containing the extracted data
+     */
+    default ExtractionMapperResult<T> mapExtraction(FieldResponseIndex fieldResponses, String templateId) {
+        return mapExtraction(fieldResponses.getResponses(), templateId);
+    }
 }
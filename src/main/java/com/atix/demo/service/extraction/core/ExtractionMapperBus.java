@@ -1,14 +1,12 @@
 package com.atix.demo.service.extraction.core;
 
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import com.atix.demo.utils.mapper.Mappeable;
+import com.atix.demo.utils.mapper.MappeableIndex;
 import com.atix.demo.utils.mapper.MappeableUtils;
 
 /**
@@ -16,12 +14,11 @@ import com.atix.demo.utils.mapper.MappeableUtils;
  */
 @Service
 public class ExtractionMapperBus {
-    private final Map<String, Mappeable<String>> extractionMappers;
+    private final MappeableIndex<ExtractionMapper<?>> extractionMappers;
 
     @Autowired
-    public ExtractionMapperBus(List<ExtractionMapper> extractionMappers) {
-        this.extractionMappers = new HashMap<>();
-        MappeableUtils.doMap(this.extractionMappers, extractionMappers);
+    public ExtractionMapperBus(List<ExtractionMapper<?>> extractionMappers) {
+        this.extractionMappers = MappeableUtils.compileIndex(extractionMappers);
     }
 
     /**
@@ -31,8 +28,35 @@ public class ExtractionMapperBus {
      * @return the {@link ExtractionMapper} assigned to the templateId. If there is
      * no appropiate {@link ExtractionMapper} then {@code null} is returned
      */
-    public ExtractionMapper getExtractionMapper(String templateId) {
-        return (ExtractionMapper) MappeableUtils.getExactOrPartialMatch(this.extractionMappers, templateId);
+    public ExtractionMapper<?> getExtractionMapper(String templateId) {
+        return extractionMappers.resolve(templateId);
     }
 
+    /**
+     * Gets the appropiate {@link ExtractionMapper} for a template, checking that it
+     * produces the expected type of data
+     *
+     * @param <T>        the expected type of the extracted data
+     * @param templateId the template ID
+     * @param resultType the class of the expected type
+     * @return the {@link ExtractionMapper} assigned to the templateId. If there is
+     * no appropiate {@link ExtractionMapper} then {@code null} is returned
+     * @throws IllegalStateException if the mapper produces a different type of data
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ExtractionMapper<? extends T> getExtractionMapper(String templateId, Class<T> resultType) {
+        ExtractionMapper<?> extractionMapper = getExtractionMapper(templateId);
+        if (extractionMapper != null && !resultType.isAssignableFrom(extractionMapper.getResultType())) {
+            throw new IllegalStateException("Extraction mapper for templateId " + templateId + " produces "
+                    + extractionMapper.getResultType().getName() + " instead of " + resultType.getName());
+        }
+        return (ExtractionMapper<? extends T>) extractionMapper;
+    }
+
+    /**
+     * @return the dispatch index, exposing its resolution statistics
+     */
+    public MappeableIndex<ExtractionMapper<?>> getIndex() {
+        return extractionMappers;
+    }
 }
@@ -6,15 +6,17 @@ import lombok.Setter;
 
 /**
  * Contiene el resultado del mapeo de la extracción
+ *
+ * @param <T> el tipo de los datos extraídos
  */
 @AllArgsConstructor
 @Getter
 @Setter
-public class ExtractionMapperResult {
+public class ExtractionMapperResult<T> {
     /**
      * The extracted data that should be returned by the system
      */
-    private Object extractedData;
+    private T extractedData;
     /**
      * Data that is needed by the application to perform validations or other operations,
      * but that should not be returned to an external system
@@ -1,11 +1,13 @@
 package com.atix.demo.service.extraction.core;
 
 
+import java.math.BigDecimal;
 import java.util.Map;
 
 import com.xirius.seiz.core.extraction.fields.FieldResponse;
 import com.xirius.seiz.plugins.commons.utils.StringUtils;
 
+import com.atix.demo.utils.extraction.NumericFieldParser;
 import com.atix.demo.utils.mapper.Mappeable;
 
 /**
@@ -42,7 +44,7 @@ public interface Formatter extends Mappeable<String> {
      * @return the formatted extracted value
      */
     default String getStringValue(Map<String, FieldResponse> responseMap, String key) {
-        String text = responseMap.getOrDefault(key, new FieldResponse()).getText();
+        String text = getText(responseMap, key);
         return formatStringValue(key, StringUtils.isBlank(text) ? "" : text).trim();
     }
 
@@ -56,7 +58,38 @@ public interface Formatter extends Mappeable<String> {
     String formatStringValue(String key, String value);
 
     default String getCleanStringValue(Map<String, FieldResponse> responseMap, String key) {
-        String text = responseMap.getOrDefault(key, new FieldResponse()).getText();
-        return text.replaceAll("[\\s\\n\\r\\t]", "");
+        String text = getText(responseMap, key);
+        return text == null ? "" : NumericFieldParser.removeWhitespace(text);
     }
-}
\ No newline at end of file
+
+    /**
+     * Obtains a numeric value, parsed directly from the extracted text
+     *
+     * @param responseMap a map that contains the response from the extraction
+     *                    process. This map should ONLY contain simple fields, i.e.
+     *                    those with exactly one ocurrence
+     * @param key         the key or name of the field
+     * @return the numeric value, or {@code null} if the field is missing or has no number
+     */
+    default BigDecimal getDecimalValue(Map<String, FieldResponse> responseMap, String key) {
+        String text = getText(responseMap, key);
+        return text == null ? null : formatDecimalValue(key, text);
+    }
+
+    /**
+     * Parses a numeric value. By default the first number of the value is parsed with
+     * {@link NumericFieldParser#parseDecimal(CharSequence)}
+     *
+     * @param key   the key or name of the field
+     * @param value the value of the field
+     * @return the numeric value, or {@code null} if the value has no number
+     */
+    default BigDecimal formatDecimalValue(String key, String value) {
+        return NumericFieldParser.parseDecimal(value);
+    }
+
+    private static String getText(Map<String, FieldResponse> responseMap, String key) {
+        FieldResponse response = responseMap.get(key);
+        return response == null ? null : response.getText();
+    }
+}
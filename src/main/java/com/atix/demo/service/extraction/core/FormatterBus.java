@@ -1,12 +1,10 @@
 package com.atix.demo.service.extraction.core;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import com.atix.demo.utils.mapper.Mappeable;
+import com.atix.demo.utils.mapper.MappeableIndex;
 import com.atix.demo.utils.mapper.MappeableUtils;
 
 /**
@@ -14,12 +12,11 @@ import com.atix.demo.utils.mapper.MappeableUtils;
  */
 @Service
 public class FormatterBus {
-    private final Map<String, Mappeable<String>> formatters;
+    private final MappeableIndex<Formatter> formatters;
 
     @Autowired
     public FormatterBus(List<Formatter> formatters) {
-        this.formatters = new HashMap<>();
-        MappeableUtils.doMap(this.formatters, formatters);
+        this.formatters = MappeableUtils.compileIndex(formatters);
     }
 
     /**
@@ -30,7 +27,13 @@ public class FormatterBus {
      *         appropiate {@link Formatter} then {@code null} is returned
      */
     public Formatter getFormatter(String templateId) {
-        return (Formatter) MappeableUtils.getExactOrPartialMatch(this.formatters, templateId);
+        return formatters.resolve(templateId);
     }
 
-}
\ No newline at end of file
+    /**
+     * @return the dispatch index, exposing its resolution statistics
+     */
+    public MappeableIndex<Formatter> getIndex() {
+        return formatters;
+    }
+}
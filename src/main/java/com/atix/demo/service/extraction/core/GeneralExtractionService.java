@@ -2,18 +2,21 @@ package com.atix.demo.service.extraction.core;
 
 
 import java.io.*;
-import java.math.BigDecimal;
-import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.stream.Collectors;
 
 import com.atix.demo.domain.exceptions.DuplicateCreditNoteException;
+import com.atix.demo.domain.exceptions.ExtractionCapacityExceededException;
 import com.atix.demo.dto.ExtResponseDTO;
 import com.atix.demo.service.ConcentrationMeanService;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.gson.Gson;
+import com.atix.demo.service.metrics.ExtractionMetrics;
+import com.atix.demo.service.metrics.ExtractionMetrics.Stage;
+import com.atix.demo.service.ocr.OcrConfidenceStatistics;
+import com.atix.demo.service.ocr.OcrDocumentContext;
+import com.atix.demo.service.storage.SpilledObject;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
-import org.apache.commons.io.IOUtils;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.util.Pair;
@@ -23,14 +26,13 @@ import com.atix.demo.domain.*;
 import com.atix.demo.service.document.*;
 import com.atix.demo.dto.ConcentrationMeanDTO;
 import com.atix.demo.dto.ExtRequestDTO;
+import com.atix.demo.utils.extraction.FieldResponseIndex;
+import com.atix.demo.utils.extraction.FieldUtils;
 import com.atix.demo.utils.image.ImageUtils;
+import com.atix.demo.utils.image.PdfPageImages;
 
 import com.xirius.seiz.core.commons.model.text.DocumentSeiz;
 import com.xirius.seiz.core.commons.model.ImageSeiz;
-import com.xirius.seiz.core.extraction.model.DocumentExtractionTemplate;
-import com.xirius.seiz.core.commons.files.InputStreamFile;
-import com.xirius.seiz.core.commons.files.TransferFile;
-import com.xirius.seiz.plugins.commons.opencv.OpenCVUtils;
 import com.xirius.seiz.core.extraction.fields.*;
 
 /**
@@ -43,12 +45,13 @@ public class GeneralExtractionService {
 
     private final ExtractionMapperBus extractionMapperBus;
     private final DocumentService documentService;
-    private final Gson gson = new Gson();
     private final ConcentrationMeanService concentrationMeanService;
     private final TemplateService templateService;
-    private final FieldExtractionService fieldExtractionService = new FieldExtractionService();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ParallelFieldExtractionService parallelFieldExtractionService;
+    private final TemplateClassifier templateClassifier;
     private final DetectDocumentService detectDocumentService;
+    private final ExtractionMetrics extractionMetrics;
+    private final RasterizationScheduler rasterizationScheduler;
     private final Logger logger = LoggerFactory.getLogger(GeneralExtractionService.class);
 
 
@@ -63,64 +66,54 @@ public class GeneralExtractionService {
     }
 
     /**
-     * Creates a {@link CreditNoteDTO} based on the provided data.
+     * Gets the class identifier of the template requested. If the request does not specify
+     * one, the template is identified from the OCR of the document.
      *
-     * @param data the extracted data to be formatted into a CreditNoteDTO
-     * @return the created {@link CreditNoteDTO}
+     * @param request    the extraction request
+     * @param ocrContext the OCR result of the document
+     * @return the class identifier of the template
      */
-    private ConcentrationMeanDTO createConcentrationMeanDTO(Object data) {
-        Map<String, Object> extractedData = objectMapper.convertValue(data, Map.class);
-        return ConcentrationMeanDTO.builder()
-                .Ag(convertToBigDecimal(extractedData.get("Ag")))
-                .Au(convertToBigDecimal(extractedData.get("Au")))
-                .Cu(convertToBigDecimal(extractedData.get("Cu")))
-                .Ir(convertToBigDecimal(extractedData.get("Ir")))
-                .Pd(convertToBigDecimal(extractedData.get("Pd")))
-                .Pt(convertToBigDecimal(extractedData.get("Pt")))
-                .Rh(convertToBigDecimal(extractedData.get("Rh")))
-                .Ru(convertToBigDecimal(extractedData.get("Ru")))
-                .build();
-    }
-
-    private BigDecimal convertToBigDecimal(Object value) {
-        if (value == null) {
-            return null;
-        } else if (value instanceof BigDecimal) {
-            return (BigDecimal) value;
-        } else if (value instanceof Number) {
-            return BigDecimal.valueOf(((Number) value).doubleValue());
-        } else if (value instanceof String) {
-            try {
-                return new BigDecimal((String) value);
-            } catch (NumberFormatException e) {
-                throw new IllegalArgumentException("No se puede convertir a BigDecimal: " + value, e);
-            }
-        } else {
-            throw new IllegalArgumentException("Tipo no soportado para conversión a BigDecimal: " + value.getClass());
+    private String resolveClassId(ExtRequestDTO request, OcrDocumentContext ocrContext) throws IOException {
+        if (request.getIdTemplate() != null && !request.getIdTemplate().isBlank()) {
+            return request.getIdTemplate();
         }
+        return extractionMetrics.time(Stage.CLASSIFICATION, null, () -> templateClassifier.classify(ocrContext)).classId();
     }
 
     /**
      * Extracts data of any type based on the provided extraction request.
      *
      * @param extractionReq the extraction request containing data
+     * @param classId       the class identifier of the template
+     * @param ocrContext    the OCR result shared by every stage of the extraction
      * @param test          whether the extraction is being performed in a test environment
      * @return a pair consisting of {@link FieldExtractionResponse} and a String identifier
      */
-    private Pair<FieldExtractionResponse, String> extractAnyType(ExtRequestDTO extractionReq, boolean test)
-            throws IOException, InterruptedException {
+    private Pair<FieldExtractionResponse, String> extractAnyType(ExtRequestDTO extractionReq, String classId,
+            OcrDocumentContext ocrContext, boolean test) throws IOException {
 
-        String classId = extractionReq.getIdTemplate();
         logger.info(" Extraction of [{}], idFile: [{}]", classId, extractionReq.getIdFile());
-        InputStream ocr = detectDocumentService.getOcrResult(extractionReq.getIdFile().toString());
-        DocumentSeiz documentSeiz = gson.fromJson(IOUtils.toString(ocr, StandardCharsets.UTF_8),
-                DocumentSeiz.class);
+        long loadStart = System.nanoTime();
+        CompiledTemplate template = templateService.getCompiledTemplate(classId);
+        String templateId = template.getTemplateId();
+        extractionMetrics.record(Stage.TEMPLATE_LOAD, templateId, System.nanoTime() - loadStart);
         logger.info(" Class: [{}], idFile: [{}]", classId, extractionReq.getIdFile());
-        Pair<String, DocumentExtractionTemplate> template = templateService.getTemplate(classId);
-        String templateId = template.getFirst();
         logger.info(" Template ID: [{}], idFile: [{}]", templateId, extractionReq.getIdFile());
-        List<ImageSeiz> images = maybeGetImages(template.getSecond(), extractionReq.getIdFile().toString(), test);
-        return Pair.of(getExtResponse(template.getSecond(), images, documentSeiz), templateId);
+        DocumentSeiz documentSeiz = extractionMetrics.time(Stage.OCR_BINDING, templateId, ocrContext::getDocumentSeiz);
+        List<ImageSeiz> images = maybeGetImages(template, extractionReq.getIdFile().toString(), test);
+        long extractionStart = System.nanoTime();
+        try {
+            FieldExtractionResponse response = getExtResponse(template, images, documentSeiz);
+            extractionMetrics.fieldsExtracted(templateId, response.getFieldResponses().size());
+            return Pair.of(response, templateId);
+        } finally {
+            // Las páginas se rasterizan durante la extracción de campos; ese tiempo ya se
+            // registra en RASTERIZATION, así que se descuenta de FIELD_EXTRACTION
+            long renderNanos = images instanceof PdfPageImages pages ? pages.getRenderNanos() : 0;
+            extractionMetrics.record(Stage.FIELD_EXTRACTION, templateId,
+                    Math.max(0, System.nanoTime() - extractionStart - renderNanos));
+            releaseImages(images, extractionReq.getIdFile().toString());
+        }
     }
 
     /**
@@ -132,111 +125,149 @@ public class GeneralExtractionService {
      * the document data and the second contains the extracted data.
      */
     public Pair<ConcentrationMeanDTO, ExtResponseDTO> extractAndFormat(ExtRequestDTO request, boolean test) {
-        ConcentrationMeanDTO concentrationMeanDTO = null;
+        Timer.Sample extraction = extractionMetrics.extractionStarted(request.getIdFile().toString());
+        String extractedTemplateId = null;
+        String outcome = "error";
         try {
-            Pair<FieldExtractionResponse, String> fieldExtractionResponse = extractAnyType(request, test);
-            ExtractionMapper extractionMapper = extractionMapperBus.getExtractionMapper(fieldExtractionResponse.getSecond());
-            ExtractionMapperResult extractionResult = extractionMapper.mapExtraction(
-                    fieldExtractionResponse.getFirst().getFieldResponses(), fieldExtractionResponse.getSecond());
-            Object data = extractionResult.getExtractedData();
+            OcrDocumentContext ocrContext = detectDocumentService.getOcrContext(request.getIdFile().toString());
+            Pair<FieldExtractionResponse, String> fieldExtractionResponse =
+                    extractAnyType(request, resolveClassId(request, ocrContext), ocrContext, test);
+            String templateId = fieldExtractionResponse.getSecond();
+            extractedTemplateId = templateId;
+            ExtractionMapper<? extends ConcentrationMeanDTO> extractionMapper =
+                    extractionMapperBus.getExtractionMapper(templateId, ConcentrationMeanDTO.class);
+            if (extractionMapper == null) {
+                throw new IllegalArgumentException("Extraction mapper not found for templateId: " + templateId);
+            }
+            // El DTO tipado del mapper se persiste y se devuelve sin conversiones intermedias
+            ConcentrationMeanDTO concentrationMeanDTO = extractionMetrics.time(Stage.MAPPING, templateId, () -> {
+                FieldResponseIndex fieldResponses = FieldUtils.index(fieldExtractionResponse.getFirst().getFieldResponses());
+                return extractionMapper.mapExtraction(fieldResponses, templateId).getExtractedData();
+            });
             Document document = getDocument(request);
-            concentrationMeanDTO = createConcentrationMeanDTO(data);
 
             if (!test) {
-                concentrationMeanService.save(concentrationMeanDTO,document);
+                long saveStart = System.nanoTime();
+                concentrationMeanService.save(concentrationMeanDTO, document);
+                extractionMetrics.record(Stage.DB_SAVE, templateId, System.nanoTime() - saveStart);
             }
             // Generar el signedUrl
-            String signedUrl = detectDocumentService.generateDownloadUrl(document.getFilePath());
+            String signedUrl = extractionMetrics.time(Stage.URL_SIGNING, templateId,
+                    () -> detectDocumentService.generateDownloadUrl(document.getFilePath()));
             // Crear el DTO de respuesta
-            InputStream ocrResult=detectDocumentService.getOcrResult(request.getIdFile().toString());
-            ExtResponseDTO responseDTO = new ExtResponseDTO(request.getIdFile(), data, signedUrl, concentrationMeanService.getAverageConfidence(ocrResult), concentrationMeanService.getMinConfidence(ocrResult), concentrationMeanService.getMaxConfidence(ocrResult));
+            OcrConfidenceStatistics confidence = extractionMetrics.time(Stage.CONFIDENCE, templateId,
+                    () -> concentrationMeanService.getConfidenceStatistics(ocrContext));
+            ExtResponseDTO responseDTO = new ExtResponseDTO(request.getIdFile(), concentrationMeanDTO, signedUrl,
+                    confidence.getAverage(), confidence.getMin(), confidence.getMax());
 
+            outcome = "success";
             return Pair.of(concentrationMeanDTO, responseDTO);
         } catch (DuplicateCreditNoteException e) {
+            outcome = "duplicate";
             logger.error("Error al guardar la nota de crédito: {}", e.getMessage());
             throw e;
+        } catch (ExtractionCapacityExceededException e) {
+            outcome = "rejected";
+            throw e;
         } catch (Exception e) {
             logger.error("Error processing request: {}", e.getMessage(), e);
             throw new RuntimeException("Error processing extraction request", e);
+        } finally {
+            extractionMetrics.extractionEnded(extraction, extractedTemplateId, outcome);
         }
     }
 
-    /**
-     * Retrieves the {@link DocumentSeiz} associated with the given file ID.
-     *
-     * @param idFile the ID of the file associated with the document
-     * @return the retrieved {@link DocumentSeiz}
-     */
-    private DocumentSeiz getDocumentSeiz(String idFile) throws IOException, InterruptedException {
-        InputStream ocr = detectDocumentService.getOcrResult(idFile);
-        return gson.fromJson(IOUtils.toString(ocr, StandardCharsets.UTF_8), DocumentSeiz.class);
-    }
-
     /**
      * Retrieves a list of imageSeiz associated with the document, if required by the extraction template.
+     * Only the pages are rendered that are actually read during the extraction, at the resolution
+     * defined by the {@link RasterizationPlan} of the template. The memory of the images is reserved
+     * from the {@link RasterizationScheduler} before rendering. The returned list must be released
+     * with {@link #releaseImages(List, String)}, which also releases the reservation.
      *
-     * @param template the extraction template defining the requirements
+     * @param template the compiled extraction template defining the requirements
      * @param idFile   the ID of the file
      * @param test     whether the extraction is being performed in a test environment
      * @return a list of {@link ImageSeiz} objects, if applicable
+     * @throws ExtractionCapacityExceededException if there is no memory to rasterize the document
      */
-    private List<ImageSeiz> maybeGetImages(DocumentExtractionTemplate template, String idFile, boolean test) {
-        if (requiresImages(template)) {
+    private List<ImageSeiz> maybeGetImages(CompiledTemplate template, String idFile, boolean test) {
+        if (template.isRequiresImages()) {
+            SpilledObject pdf = null;
+            PDDocument document = null;
+            RasterizationScheduler.Reservation reservation = null;
             try {
-                TransferFile file = new InputStreamFile(idFile + ".pdf", detectDocumentService.getOriginalDocument(UUID.fromString(idFile), test));
-                return OpenCVUtils.transferFileToBufferedImages(file, 250).stream()
-                        .map(image -> ImageSeiz.Builder.builder()
-                                .format(ImageUtils.getImageFormat(file.getName()))
-                                .originalImage(image)
-                                .build())
-                        .collect(Collectors.toList());
+                long downloadStart = System.nanoTime();
+                pdf = detectDocumentService.spillOriginalDocument(UUID.fromString(idFile), test);
+                document = PDDocument.load(pdf.getPath().toFile(), MemoryUsageSetting.setupTempFileOnly());
+                String templateId = template.getTemplateId();
+                extractionMetrics.record(Stage.PDF_DOWNLOAD, templateId, System.nanoTime() - downloadStart);
+                // La memoria de las imágenes se reserva antes de rasterizar y se libera al cerrarlas
+                reservation = rasterizationScheduler.reserve(
+                        RasterizationScheduler.estimateBytes(document, template.getRasterizationPlan()), idFile);
+                SpilledObject source = pdf;
+                RasterizationScheduler.Reservation imageMemory = reservation;
+                // Las páginas se rasterizan durante la extracción, cuando se leen por primera vez
+                return new PdfPageImages(document, template.getRasterizationPlan(),
+                        ImageUtils.getImageFormat(idFile + ".pdf"), () -> {
+                            try {
+                                imageMemory.close();
+                            } finally {
+                                source.close();
+                            }
+                        }, extractionMetrics.renderListener(idFile, templateId));
             } catch (IOException e) {
                 logger.error("Error getting images for file [{}]", idFile, e);
+                closeQuietly(reservation);
+                closeQuietly(document);
+                closeQuietly(pdf);
+            } catch (RuntimeException e) {
+                closeQuietly(reservation);
+                closeQuietly(document);
+                closeQuietly(pdf);
+                throw e;
             }
         }
         return Collections.emptyList();
     }
 
-
     /**
-     * Determines whether the provided extraction template requires images for the extraction process.
+     * Releases the resources held by the images of a document
      *
-     * @param template the extraction template defining the requirements
-     * @return true if images are required, false otherwise
+     * @param images the images returned by {@link #maybeGetImages(CompiledTemplate, String, boolean)}
+     * @param idFile the ID of the file
      */
-    private boolean requiresImages(DocumentExtractionTemplate template) {
-        return template.getRequests().stream()
-                .flatMap(request -> request.getRequestedFields().stream())
-                .anyMatch(field -> doesFieldRequireImages(field.getType()));
+    private void releaseImages(List<ImageSeiz> images, String idFile) {
+        if (images instanceof Closeable closeable) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                logger.warn("Error releasing images for file [{}]", idFile, e);
+            }
+        }
+    }
+
+    private void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                logger.warn("Error releasing resource", e);
+            }
+        }
     }
 
     /**
      * Generates an extraction response based on the provided template document.
      *
-     * @param template     the extraction template defining the response structure
+     * @param template     the compiled template defining the response structure
      * @param images       the list of images to be included in the response
      * @param documentSeiz the document associated with the extraction
      * @return the {@link FieldExtractionResponse} containing the extracted data
      */
-    private FieldExtractionResponse getExtResponse(DocumentExtractionTemplate template, List<ImageSeiz> images,
+    private FieldExtractionResponse getExtResponse(CompiledTemplate template, List<ImageSeiz> images,
                                                    DocumentSeiz documentSeiz) {
-        DocumentExtractionRequest documentExtractionRequest = new DocumentExtractionRequest();
-        documentExtractionRequest.setTemplate(template);
-        documentExtractionRequest.setDocument(documentSeiz);
-        documentExtractionRequest.setImages(images);
-
         FieldExtractionResponse fieldExtractionResponse = new FieldExtractionResponse();
-        fieldExtractionResponse.setFieldResponses(fieldExtractionService.extractDocument(documentExtractionRequest));
+        fieldExtractionResponse.setFieldResponses(parallelFieldExtractionService.extract(template, documentSeiz, images));
         return fieldExtractionResponse;
     }
-
-    /**
-     * Determines whether a specific field type requires images for extraction.
-     *
-     * @param fieldType the type of the field to check
-     * @return true if the field type requires images, false otherwise
-     */
-    private boolean doesFieldRequireImages(String fieldType) {
-        return Arrays.asList("TABLE", "BARCODE").contains(fieldType);
-    }
-}
\ No newline at end of file
+}
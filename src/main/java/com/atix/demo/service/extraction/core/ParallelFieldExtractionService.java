@@ -0,0 +1,104 @@
+package com.atix.demo.service.extraction.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.xirius.seiz.core.commons.model.ImageSeiz;
+import com.xirius.seiz.core.commons.model.text.DocumentSeiz;
+import com.xirius.seiz.core.extraction.fields.*;
+import com.xirius.seiz.core.extraction.model.DocumentExtractionTemplate;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs the field extraction of a template. When parallel extraction is enabled, the
+ * {@link CompiledTemplate#getPartitions() partitions} of the template are extracted as
+ * separate tasks on a shared {@link ForkJoinPool} and their responses are concatenated in
+ * the order of the template, so the result does not depend on which task ends first.
+ * <p>
+ * The pool is shared by every extraction, so {@code extraction.parallel.parallelism}
+ * bounds the number of cores used for field extraction across all concurrent requests.
+ * <p>
+ * Every partition scans the whole {@link DocumentSeiz} again, so splitting increases the
+ * total CPU of an extraction and only reduces its latency when there are idle cores; under
+ * full load {@code extraction.parallel.enabled=false} gives more throughput. Templates that
+ * read page images are always extracted serially: the partitions would only wait for each
+ * other on {@link com.atix.demo.utils.image.PdfPageImages#get(int)}, which renders one page
+ * at a time.
+ */
+@Service
+public class ParallelFieldExtractionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParallelFieldExtractionService.class);
+
+    private final FieldExtractionService fieldExtractionService = new FieldExtractionService();
+    private final boolean enabled;
+    private final ForkJoinPool pool;
+
+    public ParallelFieldExtractionService(@Value("${extraction.parallel.enabled:true}") boolean enabled,
+            @Value("${extraction.parallel.parallelism:0}") int parallelism) {
+        this.enabled = enabled;
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = enabled ? new ForkJoinPool(threads, ParallelFieldExtractionService::newWorker, null, false) : null;
+        logger.info("Field extraction {} (parallelism {})", enabled ? "in parallel" : "serial", enabled ? threads : 1);
+    }
+
+    /**
+     * Extracts the fields of a template from a document
+     *
+     * @param template     the compiled template
+     * @param documentSeiz the OCR of the document
+     * @param images       the rasterized pages of the document, or {@code null}
+     * @return the responses of every requested field, in the order of the template
+     */
+    public List<FieldResponse> extract(CompiledTemplate template, DocumentSeiz documentSeiz, List<ImageSeiz> images) {
+        List<DocumentExtractionTemplate> partitions = template.getPartitions();
+        if (!enabled || partitions.size() <= 1 || template.isRequiresImages()) {
+            return extract(template.getTemplate(), documentSeiz, images);
+        }
+        List<ForkJoinTask<List<FieldResponse>>> tasks = new ArrayList<>(partitions.size());
+        for (DocumentExtractionTemplate partition : partitions) {
+            tasks.add(pool.submit(() -> extract(partition, documentSeiz, images)));
+        }
+        List<FieldResponse> responses = new ArrayList<>();
+        try {
+            for (ForkJoinTask<List<FieldResponse>> task : tasks) {
+                responses.addAll(task.join());
+            }
+        } catch (RuntimeException e) {
+            tasks.forEach(task -> task.cancel(false));
+            throw e;
+        }
+        return responses;
+    }
+
+    private List<FieldResponse> extract(DocumentExtractionTemplate template, DocumentSeiz documentSeiz,
+            List<ImageSeiz> images) {
+        DocumentExtractionRequest documentExtractionRequest = new DocumentExtractionRequest();
+        documentExtractionRequest.setTemplate(template);
+        documentExtractionRequest.setDocument(documentSeiz);
+        documentExtractionRequest.setImages(images);
+        return fieldExtractionService.extractDocument(documentExtractionRequest);
+    }
+
+    private static ForkJoinWorkerThread newWorker(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("field-extraction-" + thread.getPoolIndex());
+        return thread;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+}
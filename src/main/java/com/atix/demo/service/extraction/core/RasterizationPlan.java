@@ -0,0 +1,72 @@
+package com.atix.demo.service.extraction.core;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+import lombok.Getter;
+
+/**
+ * Describes which pages of a document must be rasterized for a template, and at which
+ * resolution. Built once per template by {@link RasterizationPlanner}.
+ */
+@Getter
+public class RasterizationPlan {
+    /**
+     * Resolution used when the template does not specify one
+     */
+    public static final int DEFAULT_DPI = 250;
+
+    /**
+     * Plan for templates that do not need images at all
+     */
+    public static final RasterizationPlan NONE = new RasterizationPlan(false, 0, Collections.emptyMap());
+
+    /**
+     * Whether every page of the document is needed
+     */
+    private final boolean allPages;
+    /**
+     * Resolution for the pages that are not explicitly listed in {@link #pageDpi}
+     */
+    private final int defaultDpi;
+    /**
+     * Zero-based index of the explicitly required pages and their resolution
+     */
+    private final Map<Integer, Integer> pageDpi;
+
+    public RasterizationPlan(boolean allPages, int defaultDpi, Map<Integer, Integer> pageDpi) {
+        this.allPages = allPages;
+        this.defaultDpi = defaultDpi;
+        this.pageDpi = Collections.unmodifiableMap(new TreeMap<>(pageDpi));
+    }
+
+    /**
+     * @return {@code true} if no page has to be rasterized
+     */
+    public boolean isEmpty() {
+        return !allPages && pageDpi.isEmpty();
+    }
+
+    /**
+     * Determines whether a page is required by the template
+     *
+     * @param pageIndex the zero-based index of the page
+     * @return {@code true} if the page must be rasterized
+     */
+    public boolean includes(int pageIndex) {
+        return allPages || pageDpi.containsKey(pageIndex);
+    }
+
+    /**
+     * Gets the resolution at which a page must be rasterized. Pages not required by the
+     * plan get the default resolution, so that they can still be rendered on demand
+     *
+     * @param pageIndex the zero-based index of the page
+     * @return the resolution in DPI
+     */
+    public int dpiFor(int pageIndex) {
+        int dpi = pageDpi.getOrDefault(pageIndex, allPages ? defaultDpi : 0);
+        return dpi > 0 ? dpi : DEFAULT_DPI;
+    }
+}
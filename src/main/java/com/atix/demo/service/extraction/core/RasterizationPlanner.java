@@ -0,0 +1,138 @@
+package com.atix.demo.service.extraction.core;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Derives a {@link RasterizationPlan} from the JSON definition of an extraction template.
+ *
+ * <p>
+ * Only the requests that contain a field listed in {@link CompiledTemplate#IMAGE_FIELD_TYPES}
+ * contribute to the plan. The pages of such a request are taken from the {@code page} (or
+ * {@code pageNumber}) property of its ROIs, as serialized by
+ * {@link com.atix.demo.utils.extraction.InterfaceAdapter}; a missing or {@code null} ROI
+ * means that the request may look at any page. Page numbers are 1-based, like the
+ * {@code number} of the pages of the OCR and {@code FieldResponse.pageNumber}, and are
+ * converted to the zero-based indexes of {@link RasterizationPlan}; a number below 1 is
+ * treated as unknown, so the request may look at any page.
+ * <p>
+ * The plan only sizes the memory reservation and picks the resolution: a page left out by
+ * a wrong page number is still rendered on demand by
+ * {@link com.atix.demo.utils.image.PdfPageImages}, at the default resolution. The resolution is taken from an optional
+ * {@code dpi} property of the {@code fieldConfig} of the image field types, defaulting to
+ * {@link RasterizationPlan#DEFAULT_DPI}.
+ */
+public class RasterizationPlanner {
+
+    private RasterizationPlanner() {
+    }
+
+    /**
+     * Builds the rasterization plan of a template
+     *
+     * @param definition the JSON definition of the template
+     * @return the rasterization plan
+     */
+    public static RasterizationPlan plan(JsonObject definition) {
+        boolean allPages = false;
+        int defaultDpi = 0;
+        Map<Integer, Integer> pageDpi = new HashMap<>();
+
+        for (JsonElement requestElement : array(definition, "requests")) {
+            if (!requestElement.isJsonObject()) {
+                continue;
+            }
+            JsonObject request = requestElement.getAsJsonObject();
+            if (!requiresImages(request)) {
+                continue;
+            }
+            int dpi = dpi(request);
+            JsonArray rois = array(request, "rois");
+            if (rois.isEmpty()) {
+                allPages = true;
+                defaultDpi = Math.max(defaultDpi, dpi);
+                continue;
+            }
+            for (JsonElement roi : rois) {
+                Integer page = page(roi);
+                if (page == null) {
+                    allPages = true;
+                    defaultDpi = Math.max(defaultDpi, dpi);
+                } else {
+                    pageDpi.merge(page, dpi, Math::max);
+                }
+            }
+        }
+
+        if (!allPages && pageDpi.isEmpty()) {
+            return RasterizationPlan.NONE;
+        }
+        return new RasterizationPlan(allPages, defaultDpi, pageDpi);
+    }
+
+    private static boolean requiresImages(JsonObject request) {
+        for (JsonElement field : array(request, "requestedFields")) {
+            if (field.isJsonObject() && CompiledTemplate.IMAGE_FIELD_TYPES.contains(string(field.getAsJsonObject(), "type"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int dpi(JsonObject request) {
+        int dpi = 0;
+        for (JsonElement element : array(request, "fieldConfigs")) {
+            if (!element.isJsonObject()) {
+                continue;
+            }
+            JsonObject fieldConfig = element.getAsJsonObject();
+            JsonElement config = fieldConfig.get("fieldConfig");
+            if (CompiledTemplate.IMAGE_FIELD_TYPES.contains(string(fieldConfig, "type"))
+                    && config != null && config.isJsonObject()) {
+                Integer value = integer(config.getAsJsonObject(), "dpi");
+                if (value != null) {
+                    dpi = Math.max(dpi, value);
+                }
+            }
+        }
+        return dpi > 0 ? dpi : RasterizationPlan.DEFAULT_DPI;
+    }
+
+    private static Integer page(JsonElement roi) {
+        if (roi == null || !roi.isJsonObject()) {
+            return null;
+        }
+        JsonObject object = roi.getAsJsonObject();
+        JsonElement data = object.get("data");
+        if (data != null && data.isJsonObject()) {
+            object = data.getAsJsonObject();
+        }
+        Integer page = integer(object, "page");
+        if (page == null) {
+            page = integer(object, "pageNumber");
+        }
+        return page != null && page >= 1 ? page - 1 : null;
+    }
+
+    private static JsonArray array(JsonObject object, String name) {
+        JsonElement element = object.get(name);
+        return element != null && element.isJsonArray() ? element.getAsJsonArray() : new JsonArray();
+    }
+
+    private static String string(JsonObject object, String name) {
+        JsonElement element = object.get(name);
+        return element != null && element.isJsonPrimitive() ? element.getAsString() : null;
+    }
+
+    private static Integer integer(JsonObject object, String name) {
+        JsonElement element = object.get(name);
+        if (element == null || !element.isJsonPrimitive() || !element.getAsJsonPrimitive().isNumber()) {
+            return null;
+        }
+        return element.getAsInt();
+    }
+}
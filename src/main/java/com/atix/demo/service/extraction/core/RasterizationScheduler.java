@@ -0,0 +1,178 @@
+package com.atix.demo.service.extraction.core;
+
+import java.io.Closeable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.atix.demo.domain.exceptions.ExtractionCapacityExceededException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Admission control for the rasterization of documents. Before the pages of a document are
+ * rendered, the memory of their pixels is estimated from the page sizes and the resolutions
+ * of the {@link RasterizationPlan}, and reserved from a global budget shared by every
+ * extraction. Documents that do not fit wait for other documents to release their
+ * reservation, up to {@code extraction.rasterization.queue-timeout-ms}; if the wait times
+ * out, or the document alone exceeds the whole budget, it is rejected with an
+ * {@link ExtractionCapacityExceededException} instead of risking an out-of-memory error.
+ * <p>
+ * The budget is {@code extraction.rasterization.memory-budget-mb}, or a quarter of the
+ * maximum heap if it is not set. It is tracked in KiB.
+ */
+@Service
+public class RasterizationScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(RasterizationScheduler.class);
+
+    /**
+     * Bytes of each pixel of a page image: TYPE_3BYTE_BGR
+     */
+    private static final int BYTES_PER_PIXEL = 3;
+    private static final float POINTS_PER_INCH = 72f;
+
+    private final int budgetKib;
+    private final long queueTimeoutMs;
+    private final Semaphore budget;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final Counter admitted;
+    private final Counter rejected;
+    private final Counter timedOut;
+
+    public RasterizationScheduler(MeterRegistry registry,
+            @Value("${extraction.rasterization.memory-budget-mb:0}") long memoryBudgetMb,
+            @Value("${extraction.rasterization.queue-timeout-ms:10000}") long queueTimeoutMs) {
+        long budgetBytes = memoryBudgetMb > 0 ? memoryBudgetMb << 20 : Runtime.getRuntime().maxMemory() / 4;
+        this.budgetKib = (int) Math.min(Integer.MAX_VALUE, budgetBytes >> 10);
+        this.queueTimeoutMs = queueTimeoutMs;
+        this.budget = new Semaphore(budgetKib, true);
+        Gauge.builder("rasterization.memory.budget", () -> (double) budgetKib * 1024)
+                .description("Memory budget for page images")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("rasterization.memory.reserved", budget, b -> (double) (budgetKib - b.availablePermits()) * 1024)
+                .description("Memory reserved for page images of documents being extracted")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("rasterization.memory.utilization", budget, b -> 1 - (double) b.availablePermits() / budgetKib)
+                .description("Fraction of the memory budget for page images in use")
+                .register(registry);
+        Gauge.builder("rasterization.queue", waiting, AtomicInteger::get)
+                .description("Documents waiting for memory to be rasterized")
+                .register(registry);
+        this.admitted = admissions(registry, "admitted");
+        this.rejected = admissions(registry, "rejected");
+        this.timedOut = admissions(registry, "timeout");
+        logger.info("Rasterization memory budget: {} MiB", budgetKib >> 10);
+    }
+
+    /**
+     * Estimates the memory needed to rasterize the pages of a document required by a plan.
+     * {@link com.atix.demo.utils.image.PdfPageImages} renders only those pages, and returns
+     * a 1x1 placeholder for the others, so the estimate bounds its memory
+     *
+     * @param document the PDF document
+     * @param plan     the rasterization plan of the template
+     * @return the estimated bytes
+     */
+    public static long estimateBytes(PDDocument document, RasterizationPlan plan) {
+        long bytes = 0;
+        for (int index = 0; index < document.getNumberOfPages(); index++) {
+            if (plan.includes(index)) {
+                bytes += pixels(document.getPage(index), plan.dpiFor(index)) * BYTES_PER_PIXEL;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Reserves the memory to rasterize a document, waiting for it if the budget is in use
+     *
+     * @param bytes  the estimated bytes, see {@link #estimateBytes(PDDocument, RasterizationPlan)}
+     * @param idFile the ID of the file, for logging
+     * @return the reservation, which must be closed once the images are released
+     * @throws ExtractionCapacityExceededException if the document exceeds the whole budget
+     *                                             or the memory is not released in time
+     */
+    public Reservation reserve(long bytes, String idFile) {
+        int kib = (int) Math.min(Integer.MAX_VALUE, (bytes + 1023) >> 10);
+        if (kib > budgetKib) {
+            rejected.increment();
+            throw new ExtractionCapacityExceededException("El documento " + idFile + " requiere " + (kib >> 10)
+                    + " MiB para rasterizarse, más que el total disponible");
+        }
+        try {
+            if (!tryAcquire(kib, 0)) {
+                waiting.incrementAndGet();
+                try {
+                    if (!tryAcquire(kib, queueTimeoutMs)) {
+                        timedOut.increment();
+                        throw new ExtractionCapacityExceededException(
+                                "No hay memoria disponible para rasterizar el documento " + idFile);
+                    }
+                } finally {
+                    waiting.decrementAndGet();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExtractionCapacityExceededException(
+                    "Interrumpido mientras se esperaba memoria para rasterizar el documento " + idFile);
+        }
+        admitted.increment();
+        return new Reservation(kib);
+    }
+
+    /**
+     * Timed acquisition, even without waiting, so the fair semaphore serves queued documents
+     * first instead of letting small documents barge ahead of large ones
+     */
+    private boolean tryAcquire(int kib, long timeoutMs) throws InterruptedException {
+        return budget.tryAcquire(kib, timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    private static long pixels(PDPage page, int dpi) {
+        PDRectangle box = page.getCropBox();
+        long width = (long) Math.ceil(box.getWidth() / POINTS_PER_INCH * dpi);
+        long height = (long) Math.ceil(box.getHeight() / POINTS_PER_INCH * dpi);
+        return width * height;
+    }
+
+    private static Counter admissions(MeterRegistry registry, String result) {
+        return Counter.builder("rasterization.admissions")
+                .description("Documents admitted or rejected for rasterization")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    /**
+     * Memory reserved for the images of a document. Closing it more than once has no effect
+     */
+    public class Reservation implements Closeable {
+        private final int kib;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Reservation(int kib) {
+            this.kib = kib;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                budget.release(kib);
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.atix.demo.service.extraction.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.atix.demo.domain.exceptions.TemplateNotFoundException;
+import com.atix.demo.service.ocr.OcrDocumentContext;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Identifies the template of a document from its OCR, so that clients do not need to
+ * know it in advance. The words of the document are read in a single pass and scored
+ * against a {@link TemplateKeywordIndex} built from the synonyms of every registered
+ * template, without running an extraction per candidate template.
+ * <p>
+ * The index is built when the application starts, and rebuilt when the keywords of a
+ * template change and every {@code extraction.classifier.refresh-seconds} to pick up new
+ * registered templates. Rebuilds run in the background: requests keep using the previous
+ * index meanwhile, so they never wait for the templates to be listed and compiled.
+ */
+@Service
+public class TemplateClassifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(TemplateClassifier.class);
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final String TEXT = "text";
+
+    private final TemplateService templateService;
+    private final double minScore;
+    private final long refreshNanos;
+    private volatile Snapshot snapshot;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "template-index-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public TemplateClassifier(TemplateService templateService,
+            @Value("${extraction.classifier.min-score:0.3}") double minScore,
+            @Value("${extraction.classifier.refresh-seconds:300}") long refreshSeconds) {
+        this.templateService = templateService;
+        this.minScore = minScore;
+        this.refreshNanos = TimeUnit.SECONDS.toNanos(refreshSeconds);
+    }
+
+    /**
+     * Identifies the template of a document
+     *
+     * @param ocrContext the OCR of the document
+     * @return the best matching template and its score
+     * @throws IOException               if the OCR cannot be read
+     * @throws TemplateNotFoundException if no template reaches the minimum score
+     */
+    public Classification classify(OcrDocumentContext ocrContext) throws IOException {
+        TemplateKeywordIndex.Scorer scorer = getIndex().newScorer();
+        try (InputStream content = ocrContext.openStream();
+             JsonParser parser = JSON_FACTORY.createParser(content)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.VALUE_STRING && TEXT.equals(parser.getCurrentName())) {
+                    scorer.accept(parser.getText());
+                }
+            }
+        }
+        Classification classification = scorer.best();
+        if (classification == null || classification.score() < minScore) {
+            throw new TemplateNotFoundException("No se pudo identificar la plantilla del documento ["
+                    + ocrContext.getIdFile() + "]");
+        }
+        logger.info(" Template [{}] identified with score {} for idFile: [{}]", classification.classId(),
+                String.format("%.2f", classification.score()), ocrContext.getIdFile());
+        return classification;
+    }
+
+    /**
+     * Builds the index when the application starts, so that the first request does not
+     * pay for it
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    void warmUp() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            logger.warn("Could not build the template keyword index at startup", e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    private TemplateKeywordIndex getIndex() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            // Sólo si se clasifica antes de terminar el arranque
+            return rebuild().index();
+        }
+        if (isStale(current) && rebuilding.compareAndSet(false, true)) {
+            try {
+                rebuilder.execute(() -> {
+                    try {
+                        rebuild();
+                    } catch (RuntimeException e) {
+                        logger.warn("Could not rebuild the template keyword index", e);
+                    } finally {
+                        rebuilding.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                rebuilding.set(false);
+            }
+        }
+        return current.index();
+    }
+
+    private boolean isStale(Snapshot current) {
+        return current == null || current.version() != templateService.getVersion()
+                || System.nanoTime() - current.builtAt() > refreshNanos;
+    }
+
+    private synchronized Snapshot rebuild() {
+        if (!isStale(snapshot)) {
+            return snapshot;
+        }
+        List<CompiledTemplate> templates = templateService.getCompiledTemplates();
+        Map<String, Set<String>> keywords = new HashMap<>();
+        for (CompiledTemplate template : templates) {
+            keywords.put(template.getClassId(), template.getKeywords());
+        }
+        Snapshot rebuilt = new Snapshot(TemplateKeywordIndex.build(keywords), templateService.getVersion(),
+                System.nanoTime());
+        snapshot = rebuilt;
+        logger.info("Template keyword index built for {} templates", rebuilt.index().size());
+        return rebuilt;
+    }
+
+    /**
+     * Result of the classification of a document
+     *
+     * @param classId the class identifier of the template
+     * @param score   fraction of the keyword weight of the template found in the document
+     */
+    public record Classification(String classId, double score) {
+    }
+
+    private record Snapshot(TemplateKeywordIndex index, long version, long builtAt) {
+    }
+}
@@ -0,0 +1,203 @@
+package com.atix.demo.service.extraction.core;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Inverted index from the keywords of the templates (the synonyms of their search
+ * strategies) to the templates that use them. A document is scored by feeding its OCR
+ * words once to a {@link Scorer}; each keyword found adds its weight to the templates
+ * that contain it, once per document.
+ * <p>
+ * Keywords shared by many templates weigh less than keywords specific to one template, and
+ * the score of a template is the fraction of its total keyword weight found in the
+ * document, so templates with more fields are not favored.
+ */
+class TemplateKeywordIndex {
+
+    private static final String SEARCH_STRATEGIES = "searchStrategies";
+    private static final String SYNONYMS = "synonyms";
+    private static final int MIN_KEYWORD_LENGTH = 2;
+
+    private final String[] classIds;
+    private final double[] totalWeights;
+    private final Map<String, Keyword> keywords;
+
+    private TemplateKeywordIndex(String[] classIds, double[] totalWeights, Map<String, Keyword> keywords) {
+        this.classIds = classIds;
+        this.totalWeights = totalWeights;
+        this.keywords = keywords;
+    }
+
+    /**
+     * Builds the index
+     *
+     * @param keywordsByClassId the normalized keywords of each template, by class identifier
+     * @return the index
+     */
+    static TemplateKeywordIndex build(Map<String, Set<String>> keywordsByClassId) {
+        Map<String, Set<String>> sorted = new TreeMap<>(keywordsByClassId);
+        String[] classIds = sorted.keySet().toArray(new String[0]);
+        Map<String, List<Integer>> postings = new HashMap<>();
+        for (int template = 0; template < classIds.length; template++) {
+            for (String keyword : sorted.get(classIds[template])) {
+                postings.computeIfAbsent(keyword, k -> new ArrayList<>()).add(template);
+            }
+        }
+        double[] totalWeights = new double[classIds.length];
+        Map<String, Keyword> keywords = new HashMap<>(postings.size() * 2);
+        for (Map.Entry<String, List<Integer>> entry : postings.entrySet()) {
+            int[] templates = entry.getValue().stream().mapToInt(Integer::intValue).toArray();
+            double weight = Math.log(1 + (double) classIds.length / templates.length);
+            for (int template : templates) {
+                totalWeights[template] += weight;
+            }
+            keywords.put(entry.getKey(), new Keyword(keywords.size(), templates, weight));
+        }
+        return new TemplateKeywordIndex(classIds, totalWeights, keywords);
+    }
+
+    /**
+     * @return a new scorer for a document
+     */
+    Scorer newScorer() {
+        return new Scorer();
+    }
+
+    /**
+     * @return the number of indexed templates
+     */
+    int size() {
+        return classIds.length;
+    }
+
+    /**
+     * Gets the normalized keywords of a template from its JSON definition
+     *
+     * @param definition the JSON definition of the template
+     * @return the keywords, in order of appearance
+     */
+    static Set<String> keywords(JsonObject definition) {
+        Set<String> keywords = new LinkedHashSet<>();
+        collectKeywords(definition, false, keywords);
+        return keywords;
+    }
+
+    private static void collectKeywords(JsonElement element, boolean inStrategies, Set<String> keywords) {
+        if (element.isJsonArray()) {
+            for (JsonElement item : element.getAsJsonArray()) {
+                collectKeywords(item, inStrategies, keywords);
+            }
+        } else if (element.isJsonObject()) {
+            for (Map.Entry<String, JsonElement> entry : element.getAsJsonObject().entrySet()) {
+                if (inStrategies && SYNONYMS.equals(entry.getKey()) && entry.getValue().isJsonArray()) {
+                    addSynonyms(entry.getValue().getAsJsonArray(), keywords);
+                } else {
+                    collectKeywords(entry.getValue(), inStrategies || SEARCH_STRATEGIES.equals(entry.getKey()), keywords);
+                }
+            }
+        }
+    }
+
+    private static void addSynonyms(JsonArray synonyms, Set<String> keywords) {
+        for (JsonElement synonym : synonyms) {
+            if (!synonym.isJsonPrimitive()) {
+                continue;
+            }
+            for (String token : synonym.getAsString().split("\\s+")) {
+                String keyword = normalize(token);
+                if (keyword != null) {
+                    keywords.add(keyword);
+                }
+            }
+        }
+    }
+
+    /**
+     * Normalizes a word: lower case, without punctuation
+     *
+     * @param word the word
+     * @return the normalized word, or {@code null} if it is too short to be a keyword
+     */
+    static String normalize(CharSequence word) {
+        StringBuilder normalized = new StringBuilder(word.length());
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(c);
+            }
+        }
+        return normalized.length() < MIN_KEYWORD_LENGTH ? null : normalized.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private record Keyword(int id, int[] templates, double weight) {
+    }
+
+    /**
+     * Accumulates the score of each template for one document
+     */
+    class Scorer {
+        private final double[] scores = new double[classIds.length];
+        private final BitSet seen = new BitSet(keywords.size());
+
+        /**
+         * Scores a text read by the OCR, which may contain several words
+         *
+         * @param text the text
+         */
+        void accept(String text) {
+            int length = text.length();
+            int start = -1;
+            for (int i = 0; i <= length; i++) {
+                boolean separator = i == length || Character.isWhitespace(text.charAt(i));
+                if (!separator && start < 0) {
+                    start = i;
+                } else if (separator && start >= 0) {
+                    acceptWord(text.subSequence(start, i));
+                    start = -1;
+                }
+            }
+        }
+
+        private void acceptWord(CharSequence word) {
+            String normalized = normalize(word);
+            Keyword keyword = normalized == null ? null : keywords.get(normalized);
+            if (keyword == null || seen.get(keyword.id())) {
+                return;
+            }
+            seen.set(keyword.id());
+            for (int template : keyword.templates()) {
+                scores[template] += keyword.weight();
+            }
+        }
+
+        /**
+         * Gets the template with the highest score. Ties are resolved by class identifier
+         *
+         * @return the best template, or {@code null} if there are no templates
+         */
+        TemplateClassifier.Classification best() {
+            int best = -1;
+            double bestScore = -1;
+            for (int template = 0; template < classIds.length; template++) {
+                double score = totalWeights[template] == 0 ? 0 : scores[template] / totalWeights[template];
+                if (score > bestScore) {
+                    best = template;
+                    bestScore = score;
+                }
+            }
+            return best < 0 ? null : new TemplateClassifier.Classification(classIds[best], bestScore);
+        }
+    }
+}
@@ -1,19 +1,42 @@
 package com.atix.demo.service.extraction.core;
 
-import java.io.File;
-import java.io.FileInputStream;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.Reader;
 import java.nio.charset.StandardCharsets;
-import java.util.Optional;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 import com.atix.demo.repository.DocumentTemplateRepository;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
 import com.xirius.seiz.core.commons.model.ROI;
 import com.xirius.seiz.core.extraction.model.DocumentExtractionTemplate;
 import com.atix.demo.domain.DocumentTemplate;
-import org.apache.commons.io.IOUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.util.Pair;
 import org.springframework.stereotype.Service;
 import lombok.RequiredArgsConstructor;
@@ -23,14 +46,34 @@ import com.atix.demo.utils.extraction.InterfaceAdapter;
 /**
  * Service in charge of template management.
  * Adapted to retrieve templates from local filesystem instead of Google Cloud Storage.
+ *
+ * <p>
+ * Templates are compiled once and cached by class identifier together with the
+ * modification stamp of their file. A {@link WatchService} on the templates directory and
+ * its subdirectories swaps in a freshly compiled version whenever a template file changes,
+ * so edits are picked up without a restart. Since file events may be lost (network drives,
+ * editors that replace the file), a cached template is also revalidated against its
+ * registration in the database and the modification stamp of its file at most every
+ * {@code templates.revalidate-seconds}.
  */
 @RequiredArgsConstructor
 @Service
 public class TemplateService {
-    private String TEMPLATES_DIRECTORY="D:/Proyectos ATIX/Demo metallix/demo-metallix/src/main/resources";
-    
+    private static final Logger logger = LoggerFactory.getLogger(TemplateService.class);
+
+    @Value("${templates.directory:D:/Proyectos ATIX/Demo metallix/demo-metallix/src/main/resources}")
+    private String templatesDirectory;
+
     private final DocumentTemplateRepository documentTemplateRepository;
     private final Gson gson = new GsonBuilder().registerTypeAdapter(ROI.class, new InterfaceAdapter<ROI>()).create();
+    private final Map<String, CompiledTemplate> templates = new ConcurrentHashMap<>();
+    private final Map<String, Long> validatedAt = new ConcurrentHashMap<>();
+    private final Map<WatchKey, Path> watchedDirectories = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private WatchService watchService;
+
+    @Value("${templates.revalidate-seconds:5}")
+    private long revalidateSeconds;
 
     /**
      * Retrieves a template from its class identifier
@@ -41,24 +84,212 @@ public class TemplateService {
      * @throws IOException if there is an I/O error
      */
     public Pair<String, DocumentExtractionTemplate> getTemplate(String classId) throws IOException {
-        Optional<DocumentTemplate> templateBd = documentTemplateRepository.findById(classId);
-        if (templateBd == null)
+        CompiledTemplate compiled = getCompiledTemplate(classId);
+        return Pair.of(compiled.getTemplateId(), compiled.getTemplate());
+    }
+
+    /**
+     * Retrieves a compiled template from its class identifier. The template is read and
+     * parsed only the first time, or after its registration or its file changes
+     *
+     * @param classId the identifier of the class associated to the template as
+     *                obtained during the classification process
+     * @return the compiled template
+     * @throws IOException if there is an I/O error
+     */
+    public CompiledTemplate getCompiledTemplate(String classId) throws IOException {
+        CompiledTemplate cached = templates.get(classId);
+        if (cached != null && isRecentlyValidated(classId)) {
+            return cached;
+        }
+        DocumentTemplate templateBd = documentTemplateRepository.findById(classId).orElse(null);
+        if (templateBd == null) {
+            if (cached != null && templates.remove(classId, cached)) {
+                version.incrementAndGet();
+                logger.info("Template [{}] is no longer registered, removed from cache", cached.getTemplateId());
+            }
             throw new TemplateNotFoundException("Plantilla no identificada para la clase [" + classId + "]");
-        
+        }
+
         // Construir la ruta al archivo de plantilla en el sistema de archivos local
-        String templatePath = TEMPLATES_DIRECTORY + "/" + templateBd.get().getTemplatePath();
-        File templateFile = new File(templatePath);
-        
+        Path templatePath = Paths.get(templatesDirectory, templateBd.getTemplatePath()).toAbsolutePath().normalize();
+
         // Verificar si el archivo existe
-        if (!templateFile.exists() || !templateFile.isFile()) {
+        if (!Files.isRegularFile(templatePath)) {
             throw new IOException("El archivo de plantilla no existe en la ruta: " + templatePath);
         }
-        
+
+        if (cached != null && cached.getTemplatePath().equals(templatePath)
+                && cached.getLastModified().equals(Files.getLastModifiedTime(templatePath))) {
+            validatedAt.put(classId, System.nanoTime());
+            return cached;
+        }
+        CompiledTemplate compiled = compile(classId, templateBd.getTemplatePath().replaceFirst(".json", ""), templatePath);
+        CompiledTemplate current = templates.compute(classId,
+                (key, previous) -> previous == null || previous == cached ? compiled : previous);
+        validatedAt.put(classId, System.nanoTime());
+        if (current == compiled && (cached == null || !cached.getKeywords().equals(compiled.getKeywords()))) {
+            version.incrementAndGet();
+        }
+        return current;
+    }
+
+    private boolean isRecentlyValidated(String classId) {
+        Long validated = validatedAt.get(classId);
+        return validated != null && System.nanoTime() - validated < TimeUnit.SECONDS.toNanos(revalidateSeconds);
+    }
+
+    /**
+     * Retrieves the compiled templates of every registered class. Templates that cannot be
+     * compiled are skipped
+     *
+     * @return the compiled templates
+     */
+    public List<CompiledTemplate> getCompiledTemplates() {
+        List<CompiledTemplate> compiled = new ArrayList<>();
+        for (DocumentTemplate templateBd : documentTemplateRepository.findAll()) {
+            try {
+                compiled.add(getCompiledTemplate(templateBd.getId()));
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Template of class [{}] skipped: {}", templateBd.getId(), e.getMessage());
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * Gets a number that changes every time a template is added or removed, or its keywords
+     * change, so that the data derived from the keywords can be rebuilt only when needed
+     *
+     * @return the version of the compiled templates
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Reads and parses a template file
+     */
+    private CompiledTemplate compile(String classId, String templateId, Path templatePath) throws IOException {
+        FileTime lastModified = Files.getLastModifiedTime(templatePath);
         // Leer el archivo del sistema local
-        try (InputStream templateStream = new FileInputStream(templateFile)) {
-            String templateAsJson = IOUtils.toString(templateStream, StandardCharsets.UTF_8);
-            return Pair.of(templateBd.get().getTemplatePath().replaceFirst(".json", ""),
-                    gson.fromJson(templateAsJson, DocumentExtractionTemplate.class));
+        try (Reader reader = Files.newBufferedReader(templatePath, StandardCharsets.UTF_8)) {
+            JsonObject definition = JsonParser.parseReader(reader).getAsJsonObject();
+            CompiledTemplate compiled = CompiledTemplate.compile(classId, templateId, templatePath, lastModified,
+                    definition, json -> gson.fromJson(json, DocumentExtractionTemplate.class));
+            logger.info("Template [{}] compiled from [{}] into {} partitions", templateId, templatePath,
+                    compiled.getPartitions().size());
+            return compiled;
+        }
+    }
+
+    /**
+     * Starts watching the templates directory and its subdirectories for changes
+     */
+    @PostConstruct
+    void startWatching() {
+        Path directory = Paths.get(templatesDirectory).toAbsolutePath().normalize();
+        if (!Files.isDirectory(directory)) {
+            logger.warn("Templates directory [{}] does not exist, hot reload is disabled", directory);
+            return;
+        }
+        try {
+            watchService = directory.getFileSystem().newWatchService();
+            registerTree(directory);
+        } catch (IOException e) {
+            logger.warn("Could not watch templates directory [{}], hot reload is disabled", directory, e);
+            return;
+        }
+        Thread watcher = new Thread(() -> watch(directory), "template-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * Registers a directory and all its subdirectories with the watch service
+     */
+    private void registerTree(Path root) throws IOException {
+        try (Stream<Path> directories = Files.walk(root)) {
+            for (Path directory : (Iterable<Path>) directories.filter(Files::isDirectory)::iterator) {
+                watchedDirectories.put(directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE),
+                        directory);
+            }
+        }
+    }
+
+    @PreDestroy
+    void stopWatching() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private void watch(Path root) {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                Path directory = watchedDirectories.get(key);
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (directory != null && event.context() instanceof Path name) {
+                        Path changed = directory.resolve(name);
+                        if (event.kind() == ENTRY_CREATE && Files.isDirectory(changed)) {
+                            registerNewDirectory(changed);
+                        }
+                        reload(changed);
+                    }
+                }
+                if (!key.reset()) {
+                    watchedDirectories.remove(key);
+                    if (root.equals(directory)) {
+                        logger.warn("Templates directory [{}] is no longer accessible, hot reload stopped", root);
+                        return;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // La aplicación se está cerrando
+        }
+    }
+
+    private void registerNewDirectory(Path directory) {
+        try {
+            registerTree(directory);
+            // Los archivos creados antes de registrar el directorio no generan eventos
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.filter(Files::isRegularFile).forEach(this::reload);
+            }
+        } catch (IOException e) {
+            logger.warn("Could not watch templates directory [{}]", directory, e);
+        }
+    }
+
+    /**
+     * Replaces the cached versions of the templates stored in a file that changed. If the
+     * new content cannot be parsed (e.g. the file is still being written) the previous
+     * version is kept until the next change
+     */
+    private void reload(Path changed) {
+        for (CompiledTemplate current : templates.values()) {
+            if (!current.getTemplatePath().equals(changed)) {
+                continue;
+            }
+            try {
+                if (!Files.isRegularFile(changed)) {
+                    templates.remove(current.getClassId(), current);
+                    version.incrementAndGet();
+                    logger.info("Template [{}] removed from cache", current.getTemplateId());
+                } else if (!Files.getLastModifiedTime(changed).equals(current.getLastModified())) {
+                    CompiledTemplate compiled = compile(current.getClassId(), current.getTemplateId(), changed);
+                    if (templates.replace(current.getClassId(), current, compiled)
+                            && !current.getKeywords().equals(compiled.getKeywords())) {
+                        version.incrementAndGet();
+                    }
+                }
+            } catch (IOException | JsonParseException | IllegalStateException e) {
+                logger.warn("Could not reload template [{}], keeping the previous version", current.getTemplateId(), e);
+            }
         }
     }
-}
\ No newline at end of file
+}
@@ -7,16 +7,15 @@ import com.xirius.seiz.core.extraction.fields.FieldResponse;
 import lombok.AllArgsConstructor;
 
 import org.springframework.stereotype.Component;
+import com.atix.demo.utils.extraction.FieldResponseIndex;
 import com.atix.demo.utils.extraction.FieldUtils;
 
 import com.atix.demo.service.extraction.core.Formatter;
 import com.atix.demo.service.extraction.core.FormatterBus;
 import com.atix.demo.service.extraction.core.ExtractionMapperResult;
 
-import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Mapper responsible for handling the extraction of data related to credit notes.
@@ -25,7 +24,7 @@ import java.util.stream.Collectors;
  */
 @AllArgsConstructor
 @Component
-public class ConcentrationMeanExtractionMapper implements ExtractionMapper {
+public class ConcentrationMeanExtractionMapper implements ExtractionMapper<ConcentrationMeanDTO> {
 
     private final FormatterBus formatterBus;
 
@@ -40,6 +39,16 @@ public class ConcentrationMeanExtractionMapper implements ExtractionMapper {
         return List.of("ConcentrationMeanTemplate");
     }
 
+    /**
+     * Indicates that this mapper produces a {@link ConcentrationMeanDTO}.
+     *
+     * @return the class of {@link ConcentrationMeanDTO}
+     */
+    @Override
+    public Class<ConcentrationMeanDTO> getResultType() {
+        return ConcentrationMeanDTO.class;
+    }
+
     /**
      * Maps the extracted field responses to the appropriate format based on the provided template ID.
      *
@@ -48,7 +57,19 @@ public class ConcentrationMeanExtractionMapper implements ExtractionMapper {
      * @return an {@link ExtractionMapperResult} containing the result of the mapping process
      */
     @Override
-    public ExtractionMapperResult mapExtraction(List<FieldResponse> fieldResponses, String templateId) {
+    public ExtractionMapperResult<ConcentrationMeanDTO> mapExtraction(List<FieldResponse> fieldResponses, String templateId) {
+        return mapExtraction(FieldUtils.index(fieldResponses), templateId);
+    }
+
+    /**
+     * Maps the indexed field responses to the appropriate format based on the provided template ID.
+     *
+     * @param fieldResponses the {@link FieldResponseIndex} of the extracted fields
+     * @param templateId the ID of the template used for mapping
+     * @return an {@link ExtractionMapperResult} containing the result of the mapping process
+     */
+    @Override
+    public ExtractionMapperResult<ConcentrationMeanDTO> mapExtraction(FieldResponseIndex fieldResponses, String templateId) {
         Formatter formatter = formatterBus.getFormatter(templateId);
 
         // Validación para asegurarse de que el formatter no sea nulo
@@ -56,10 +77,8 @@ public class ConcentrationMeanExtractionMapper implements ExtractionMapper {
             throw new IllegalArgumentException("Formatter not found for templateId: " + templateId);
         }
 
-        // Filtra los campos simples y convierte a un mapa para un acceso eficiente
-        List<FieldResponse> filteredResponses = FieldUtils.filterBySimpleFields(fieldResponses);
-        Map<String, FieldResponse> responseMap = filteredResponses.stream()
-                .collect(Collectors.toMap(FieldResponse::getFieldName, response -> response));
+        // Los campos simples ya están indexados por nombre
+        Map<String, FieldResponse> responseMap = fieldResponses.getSimpleFields();
 
         // Mapea las respuestas a un DTO
         ConcentrationMeanDTO data = new ConcentrationMeanDTO();
@@ -68,34 +87,16 @@ public class ConcentrationMeanExtractionMapper implements ExtractionMapper {
         data.setWorkNumber(formatter.getCleanStringValue(responseMap, FieldNamesConcentrationMean.WORK_NUMBER));
         data.setDate(formatter.getCleanStringValue(responseMap, FieldNamesConcentrationMean.DATE));
         data.setTime(formatter.getCleanStringValue(responseMap, FieldNamesConcentrationMean.TIME));
-        data.setAg(convertToBigDecimal(formatter.getStringValue(responseMap, FieldNamesConcentrationMean.AG)));
-        data.setAu(convertToBigDecimal(formatter.getStringValue(responseMap, FieldNamesConcentrationMean.AU)));
-        data.setCu(convertToBigDecimal(formatter.getStringValue(responseMap, FieldNamesConcentrationMean.CU)));
-        data.setIr(convertToBigDecimal(formatter.getStringValue(responseMap, FieldNamesConcentrationMean.IR)));
-        data.setPd(convertToBigDecimal(formatter.getStringValue(responseMap, FieldNamesConcentrationMean.PD)));
-        data.setPt(convertToBigDecimal(formatter.getStringValue(responseMap, FieldNamesConcentrationMean.PT)));
-        data.setRh(convertToBigDecimal(formatter.getStringValue(responseMap, FieldNamesConcentrationMean.RH)));
-        data.setRu(convertToBigDecimal(formatter.getStringValue(responseMap, FieldNamesConcentrationMean.RU)));
+        data.setAg(formatter.getDecimalValue(responseMap, FieldNamesConcentrationMean.AG));
+        data.setAu(formatter.getDecimalValue(responseMap, FieldNamesConcentrationMean.AU));
+        data.setCu(formatter.getDecimalValue(responseMap, FieldNamesConcentrationMean.CU));
+        data.setIr(formatter.getDecimalValue(responseMap, FieldNamesConcentrationMean.IR));
+        data.setPd(formatter.getDecimalValue(responseMap, FieldNamesConcentrationMean.PD));
+        data.setPt(formatter.getDecimalValue(responseMap, FieldNamesConcentrationMean.PT));
+        data.setRh(formatter.getDecimalValue(responseMap, FieldNamesConcentrationMean.RH));
+        data.setRu(formatter.getDecimalValue(responseMap, FieldNamesConcentrationMean.RU));
 
         // Retorna el resultado de la extracción
-        return new ExtractionMapperResult(data, null);
-    }
-
-    private BigDecimal convertToBigDecimal(Object value) {
-        if (value == null) {
-            return null;
-        } else if (value instanceof BigDecimal) {
-            return (BigDecimal) value;
-        } else if (value instanceof Number) {
-            return BigDecimal.valueOf(((Number) value).doubleValue());
-        } else if (value instanceof String) {
-            try {
-                return new BigDecimal((String) value);
-            } catch (NumberFormatException e) {
-                throw new IllegalArgumentException("No se puede convertir a BigDecimal: " + value, e);
-            }
-        } else {
-            throw new IllegalArgumentException("Tipo no soportado para conversión a BigDecimal: " + value.getClass());
-        }
+        return new ExtractionMapperResult<>(data, null);
     }
 }
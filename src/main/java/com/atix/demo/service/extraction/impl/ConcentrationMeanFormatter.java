@@ -2,7 +2,9 @@ package com.atix.demo.service.extraction.impl;
 
 import org.springframework.stereotype.Component;
 import com.atix.demo.service.extraction.core.Formatter;
+import com.atix.demo.utils.extraction.NumericFieldParser;
 
+import java.math.BigDecimal;
 import java.util.*;
 
 /**
@@ -34,13 +36,8 @@ public class ConcentrationMeanFormatter implements Formatter {
             return null;
         }
 
-        // Elimina espacios, saltos de línea y tabulaciones
-        String limpio = value.replaceAll("[\\s\\n\\r\\t]", "");
-        // Busca el número decimal (puede adaptarse si usas coma o punto como separador decimal)
-        java.util.regex.Matcher matcher = java.util.regex.Pattern.compile("(\\d+[.,]?\\d*)").matcher(limpio);
-        if (matcher.find()) {
-            return matcher.group(1); // Devuelve el número encontrado
-        }
-        return ""; // Si no encuentra un número
+        // Busca el primer número, aceptando coma o punto como separador decimal
+        BigDecimal number = NumericFieldParser.parseDecimal(value);
+        return number == null ? "" : number.toPlainString();
     }
 }
@@ -0,0 +1,130 @@
+package com.atix.demo.service.extraction.job;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import com.atix.demo.dto.BatchExtResultDTO;
+import com.atix.demo.dto.ExtRequestDTO;
+import com.atix.demo.service.extraction.core.GeneralExtractionService;
+
+/**
+ * Service that extracts several documents in parallel on the extraction executor and
+ * hands each result over as soon as it is ready, so that a slow document does not hold
+ * back the rest of the batch. The executor is shared with the asynchronous jobs: when it
+ * rejects a document the batch waits for capacity and retries instead of failing it.
+ */
+@Service
+public class BatchExtractionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchExtractionService.class);
+    private static final long SUBMIT_RETRY_MS = 100;
+
+    private final GeneralExtractionService generalExtractionService;
+    private final ThreadPoolTaskExecutor extractionExecutor;
+
+    @Value("${extraction.batch.default-parallelism:4}")
+    private int defaultParallelism;
+
+    @Value("${extraction.batch.max-parallelism:16}")
+    private int maxParallelism;
+
+    public BatchExtractionService(GeneralExtractionService generalExtractionService,
+            @Qualifier(ExtractionExecutorConfiguration.EXTRACTION_EXECUTOR) ThreadPoolTaskExecutor extractionExecutor) {
+        this.generalExtractionService = generalExtractionService;
+        this.extractionExecutor = extractionExecutor;
+    }
+
+    /**
+     * Extracts a batch of documents. The results are delivered to {@code sink} in
+     * completion order, always from the calling thread. If {@code sink} throws (for example
+     * because the client disconnected) or the thread is interrupted, the documents that have
+     * not started yet are cancelled
+     *
+     * @param requests    the extraction requests
+     * @param parallelism maximum number of documents extracted at the same time, never more
+     *                    than the workers of the executor. If {@code null} the configured
+     *                    default is used
+     * @param sink        consumer of the results
+     * @throws InterruptedException if the thread is interrupted while waiting for results
+     */
+    public void extractBatch(List<ExtRequestDTO> requests, Integer parallelism, Consumer<BatchExtResultDTO> sink)
+            throws InterruptedException {
+        if (requests == null || requests.isEmpty()) {
+            return;
+        }
+        int requested = parallelism != null ? parallelism : defaultParallelism;
+        int limit = Math.max(1, Math.min(Math.min(maxParallelism, extractionExecutor.getMaxPoolSize()), requested));
+        Semaphore inFlight = new Semaphore(limit);
+        BlockingQueue<BatchExtResultDTO> completed = new LinkedBlockingQueue<>();
+        List<Future<?>> futures = new ArrayList<>(requests.size());
+        logger.info("Batch extraction of {} documents with parallelism {}", requests.size(), limit);
+
+        int delivered = 0;
+        try {
+            while (delivered < requests.size()) {
+                while (futures.size() < requests.size() && inFlight.tryAcquire()) {
+                    Future<?> future = submit(futures.size(), requests.get(futures.size()), inFlight, completed);
+                    if (future == null) {
+                        inFlight.release();
+                        break;
+                    }
+                    futures.add(future);
+                }
+                // Si el executor rechazó un documento se vuelve a intentar cuando termina otro
+                // o, como mucho, después de SUBMIT_RETRY_MS
+                BatchExtResultDTO result = completed.poll(SUBMIT_RETRY_MS, TimeUnit.MILLISECONDS);
+                if (result != null) {
+                    sink.accept(result);
+                    delivered++;
+                }
+            }
+        } finally {
+            if (delivered < requests.size()) {
+                logger.warn("Batch extraction stopped after {} of {} documents, cancelling the rest",
+                        delivered, requests.size());
+                futures.forEach(future -> future.cancel(false));
+            }
+        }
+    }
+
+    private Future<?> submit(int index, ExtRequestDTO request, Semaphore inFlight,
+            BlockingQueue<BatchExtResultDTO> completed) {
+        try {
+            return extractionExecutor.submit(() -> {
+                BatchExtResultDTO result = extract(index, request);
+                // El permiso se libera antes de publicar el resultado para que quien lo consuma
+                // siempre pueda enviar la siguiente extracción
+                inFlight.release();
+                completed.add(result);
+            });
+        } catch (TaskRejectedException e) {
+            logger.debug("Extraction executor is full, retrying idFile [{}] later", request.getIdFile());
+            return null;
+        }
+    }
+
+    private BatchExtResultDTO extract(int index, ExtRequestDTO request) {
+        try {
+            return new BatchExtResultDTO(index, request.getIdFile(), ExtractionJobStatus.COMPLETED.name(),
+                    generalExtractionService.extractAndFormat(request, false).getSecond(), null);
+        } catch (Exception e) {
+            logger.error("Batch extraction of idFile [{}] failed", request.getIdFile(), e);
+            return new BatchExtResultDTO(index, request.getIdFile(), ExtractionJobStatus.FAILED.name(), null,
+                    e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.atix.demo.service.extraction.job;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Configuration of the bounded pool that runs extractions outside of the HTTP threads
+ */
+@Configuration
+public class ExtractionExecutorConfiguration {
+
+    public static final String EXTRACTION_EXECUTOR = "extractionExecutor";
+
+    /**
+     * Executor with a fixed number of workers and a bounded queue. When both are full new
+     * tasks are rejected instead of accumulating in memory
+     *
+     * @param poolSize      number of extractions that run at the same time
+     * @param queueCapacity number of extractions that may wait for a worker
+     * @return the extraction executor
+     */
+    @Bean(name = EXTRACTION_EXECUTOR)
+    public ThreadPoolTaskExecutor extractionExecutor(
+            @Value("${extraction.executor.pool-size:4}") int poolSize,
+            @Value("${extraction.executor.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("extraction-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        return executor;
+    }
+}
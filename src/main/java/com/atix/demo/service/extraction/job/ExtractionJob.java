@@ -0,0 +1,54 @@
+package com.atix.demo.service.extraction.job;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import com.atix.demo.dto.ExtRequestDTO;
+import com.atix.demo.dto.ExtResponseDTO;
+
+import lombok.Getter;
+
+/**
+ * An extraction submitted to run asynchronously. The state is updated by the worker that
+ * runs it and read by the HTTP threads that query it. The status is always written last,
+ * so a reader that sees a finished status also sees its result, error and completion time
+ */
+@Getter
+public class ExtractionJob {
+    private final UUID id;
+    private final ExtRequestDTO request;
+    private final LocalDateTime submittedAt;
+    private volatile ExtractionJobStatus status = ExtractionJobStatus.PENDING;
+    private volatile LocalDateTime completedAt;
+    private volatile ExtResponseDTO result;
+    private volatile String error;
+
+    public ExtractionJob(UUID id, ExtRequestDTO request) {
+        this.id = id;
+        this.request = request;
+        this.submittedAt = LocalDateTime.now();
+    }
+
+    void start() {
+        status = ExtractionJobStatus.RUNNING;
+    }
+
+    void complete(ExtResponseDTO result) {
+        this.result = result;
+        this.completedAt = LocalDateTime.now();
+        this.status = ExtractionJobStatus.COMPLETED;
+    }
+
+    void fail(String error) {
+        this.error = error;
+        this.completedAt = LocalDateTime.now();
+        this.status = ExtractionJobStatus.FAILED;
+    }
+
+    /**
+     * @return {@code true} if the job already finished, successfully or not
+     */
+    public boolean isFinished() {
+        return status == ExtractionJobStatus.COMPLETED || status == ExtractionJobStatus.FAILED;
+    }
+}
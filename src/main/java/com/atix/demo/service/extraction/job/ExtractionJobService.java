@@ -0,0 +1,116 @@
+package com.atix.demo.service.extraction.job;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.atix.demo.domain.exceptions.ExtractionCapacityExceededException;
+import com.atix.demo.dto.ExtRequestDTO;
+import com.atix.demo.dto.ExtractionJobDTO;
+import com.atix.demo.service.extraction.core.GeneralExtractionService;
+
+/**
+ * Service that runs extractions asynchronously on the bounded extraction executor, so
+ * that the duration of an extraction does not hold an HTTP thread. Finished jobs are kept
+ * in memory for a retention period so that clients can fetch their results; jobs that
+ * have not finished do not expire. The number of jobs kept is bounded by
+ * {@code extraction.jobs.maximum-size}.
+ */
+@Service
+public class ExtractionJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExtractionJobService.class);
+
+    private final GeneralExtractionService generalExtractionService;
+    private final ThreadPoolTaskExecutor extractionExecutor;
+    private final Cache<UUID, ExtractionJob> jobs;
+
+    public ExtractionJobService(GeneralExtractionService generalExtractionService,
+            @Qualifier(ExtractionExecutorConfiguration.EXTRACTION_EXECUTOR) ThreadPoolTaskExecutor extractionExecutor,
+            @Value("${extraction.jobs.retention-minutes:30}") long retentionMinutes,
+            @Value("${extraction.jobs.maximum-size:10000}") long maximumSize) {
+        this.generalExtractionService = generalExtractionService;
+        this.extractionExecutor = extractionExecutor;
+        long retentionNanos = Duration.ofMinutes(retentionMinutes).toNanos();
+        this.jobs = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<UUID, ExtractionJob>() {
+                    @Override
+                    public long expireAfterCreate(UUID key, ExtractionJob job, long currentTime) {
+                        return job.isFinished() ? retentionNanos : Long.MAX_VALUE;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(UUID key, ExtractionJob job, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, job, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(UUID key, ExtractionJob job, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Submits an extraction to be run asynchronously
+     *
+     * @param request the extraction request
+     * @return the status of the submitted job
+     * @throws ExtractionCapacityExceededException if the executor queue is full
+     */
+    public ExtractionJobDTO submit(ExtRequestDTO request) {
+        ExtractionJob job = new ExtractionJob(UUID.randomUUID(), request);
+        jobs.put(job.getId(), job);
+        try {
+            extractionExecutor.execute(() -> run(job));
+        } catch (TaskRejectedException e) {
+            jobs.invalidate(job.getId());
+            throw new ExtractionCapacityExceededException(
+                    "No hay capacidad para procesar la extracción del documento " + request.getIdFile());
+        }
+        logger.info("Extraction job [{}] submitted for idFile [{}]", job.getId(), request.getIdFile());
+        return toDTO(job);
+    }
+
+    /**
+     * Gets the status of a job
+     *
+     * @param jobId the ID of the job
+     * @return the status of the job, or empty if it does not exist or already expired
+     */
+    public Optional<ExtractionJobDTO> getJob(UUID jobId) {
+        return Optional.ofNullable(jobs.getIfPresent(jobId)).map(this::toDTO);
+    }
+
+    private void run(ExtractionJob job) {
+        job.start();
+        try {
+            job.complete(generalExtractionService.extractAndFormat(job.getRequest(), false).getSecond());
+        } catch (Exception e) {
+            logger.error("Extraction job [{}] failed", job.getId(), e);
+            job.fail(e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+        }
+        // Writing the job again starts its retention period
+        jobs.put(job.getId(), job);
+    }
+
+    private ExtractionJobDTO toDTO(ExtractionJob job) {
+        // The status is read first: it is written last, so the result is already visible
+        ExtractionJobStatus status = job.getStatus();
+        return new ExtractionJobDTO(job.getId(), job.getRequest().getIdFile(), status.name(),
+                job.getSubmittedAt(), job.getCompletedAt(), job.getResult(), job.getError());
+    }
+}
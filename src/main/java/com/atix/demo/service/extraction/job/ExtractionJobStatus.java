@@ -0,0 +1,11 @@
+package com.atix.demo.service.extraction.job;
+
+/**
+ * Lifecycle states of an asynchronous extraction
+ */
+public enum ExtractionJobStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,101 @@
+package com.atix.demo.service.metrics;
+
+import com.atix.demo.service.metrics.ExtractionMetrics.Stage;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event of one extraction, with the time spent in each of its stages. Its duration is
+ * the total time of the extraction, so slow requests can be correlated with the GC and
+ * allocation events recorded in the same interval.
+ */
+@Name("com.atix.demo.Extraction")
+@Label("Extraction")
+@Category({ "Demo Metallix", "Extraction" })
+@Description("Extraction of a document, with the duration of each stage")
+@StackTrace(false)
+public class ExtractionEvent extends jdk.jfr.Event {
+
+    @Label("Id File")
+    String idFile;
+
+    @Label("Template")
+    String template;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("OCR Wait")
+    @Timespan
+    long ocrWait;
+
+    @Label("OCR Download")
+    @Timespan
+    long ocrDownload;
+
+    @Label("OCR Binding")
+    @Timespan
+    long ocrBinding;
+
+    @Label("Classification")
+    @Timespan
+    long classification;
+
+    @Label("Template Load")
+    @Timespan
+    long templateLoad;
+
+    @Label("PDF Download")
+    @Timespan
+    long pdfDownload;
+
+    @Label("Rasterization")
+    @Timespan
+    long rasterization;
+
+    @Label("Field Extraction")
+    @Timespan
+    long fieldExtraction;
+
+    @Label("Mapping")
+    @Timespan
+    long mapping;
+
+    @Label("DB Save")
+    @Timespan
+    long dbSave;
+
+    @Label("URL Signing")
+    @Timespan
+    long urlSigning;
+
+    @Label("Confidence")
+    @Timespan
+    long confidence;
+
+    /**
+     * Adds the duration of a stage. A stage may run more than once per extraction (e.g.
+     * one rasterization per page)
+     */
+    void add(Stage stage, long nanos) {
+        switch (stage) {
+            case OCR_WAIT -> ocrWait += nanos;
+            case OCR_DOWNLOAD -> ocrDownload += nanos;
+            case OCR_BINDING -> ocrBinding += nanos;
+            case CLASSIFICATION -> classification += nanos;
+            case TEMPLATE_LOAD -> templateLoad += nanos;
+            case PDF_DOWNLOAD -> pdfDownload += nanos;
+            case RASTERIZATION -> rasterization += nanos;
+            case FIELD_EXTRACTION -> fieldExtraction += nanos;
+            case MAPPING -> mapping += nanos;
+            case DB_SAVE -> dbSave += nanos;
+            case URL_SIGNING -> urlSigning += nanos;
+            case CONFIDENCE -> confidence += nanos;
+        }
+    }
+}
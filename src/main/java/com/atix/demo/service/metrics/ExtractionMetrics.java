@@ -0,0 +1,255 @@
+package com.atix.demo.service.metrics;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.stereotype.Component;
+
+import com.atix.demo.utils.image.PdfPageImages;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Metrics of the extraction pipeline, exposed through Actuator ({@code /actuator/metrics}
+ * and {@code /actuator/prometheus}).
+ * <p>
+ * Every stage of an extraction is recorded in the {@code extraction.stage} timer, tagged by
+ * stage and template id, with a percentile histogram so the latency breakdown can be
+ * aggregated across instances. Stages that run before the template is known (waiting for
+ * and downloading the OCR, identifying the template) are tagged with
+ * {@link #UNKNOWN_TEMPLATE}.
+ * <p>
+ * When JDK Flight Recorder is running, each extraction is also recorded as an
+ * {@link ExtractionEvent} with the durations of its stages, and each rasterized page as a
+ * {@link PageRenderEvent}. The event of an extraction is bound to the thread that started
+ * it, between {@link #extractionStarted(String)} and
+ * {@link #extractionEnded(Timer.Sample, String, String)}.
+ */
+@Component
+public class ExtractionMetrics {
+
+    public static final String UNKNOWN_TEMPLATE = "unknown";
+
+    static final String STAGE_TIMER = "extraction.stage";
+    static final String EXTRACTION_TIMER = "extraction.requests";
+    static final String FIELDS_COUNTER = "extraction.fields";
+    static final String OCR_CACHE_COUNTER = "ocr.cache.requests";
+    static final String IN_FLIGHT_GAUGE = "extraction.in.flight";
+    static final String OCR_WAITERS_GAUGE = "ocr.waiters";
+
+    private static final Duration MIN_EXPECTED = Duration.ofMillis(1);
+    private static final Duration MAX_EXPECTED = Duration.ofMinutes(5);
+
+    private final MeterRegistry registry;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger ocrWaiters = new AtomicInteger();
+    private final Map<String, Timer> stageTimers = new ConcurrentHashMap<>();
+    private final ThreadLocal<ExtractionEvent> currentEvent = new ThreadLocal<>();
+
+    public ExtractionMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        Gauge.builder(IN_FLIGHT_GAUGE, inFlight, AtomicInteger::get)
+                .description("Extractions in progress")
+                .register(registry);
+        Gauge.builder(OCR_WAITERS_GAUGE, ocrWaiters, AtomicInteger::get)
+                .description("Requests waiting for the OCR of their document")
+                .register(registry);
+    }
+
+    /**
+     * Stages of an extraction. Pages are rasterized lazily while the fields are extracted;
+     * that time is recorded as {@link #RASTERIZATION} and is not included in
+     * {@link #FIELD_EXTRACTION}
+     */
+    public enum Stage {
+        OCR_WAIT, OCR_DOWNLOAD, OCR_BINDING, CLASSIFICATION, TEMPLATE_LOAD, PDF_DOWNLOAD, RASTERIZATION,
+        FIELD_EXTRACTION, MAPPING, DB_SAVE, URL_SIGNING, CONFIDENCE;
+
+        private final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A stage of an extraction, which may throw a checked exception
+     *
+     * @param <T> the type of the result
+     * @param <E> the type of the exception
+     */
+    @FunctionalInterface
+    public interface StageCall<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    /**
+     * Runs a stage and records its duration, whether it succeeds or not
+     *
+     * @param stage      the stage
+     * @param templateId the template id, or {@code null} if it is not known yet
+     * @param call       the stage
+     * @return the result of the stage
+     * @throws E the exception thrown by the stage
+     */
+    public <T, E extends Exception> T time(Stage stage, String templateId, StageCall<T, E> call) throws E {
+        long start = System.nanoTime();
+        try {
+            return call.call();
+        } finally {
+            record(stage, templateId, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Records the duration of a stage
+     *
+     * @param stage      the stage
+     * @param templateId the template id, or {@code null} if it is not known yet
+     * @param nanos      the duration, in nanoseconds
+     */
+    public void record(Stage stage, String templateId, long nanos) {
+        record(stage, templateId, nanos, currentEvent.get());
+    }
+
+    /**
+     * Creates the listener that records the pages rasterized for the extraction of the
+     * current thread. The pages may be rendered by other threads
+     *
+     * @param idFile     the ID of the file
+     * @param templateId the template id
+     * @return the listener
+     */
+    public PdfPageImages.RenderListener renderListener(String idFile, String templateId) {
+        ExtractionEvent extraction = currentEvent.get();
+        return (page, dpi, pixelBytes, nanos) -> {
+            record(Stage.RASTERIZATION, templateId, nanos, extraction);
+            PageRenderEvent event = new PageRenderEvent();
+            if (event.shouldCommit()) {
+                event.idFile = idFile;
+                event.template = templateId;
+                event.page = page;
+                event.dpi = dpi;
+                event.pixelBytes = pixelBytes;
+                event.renderTime = nanos;
+                event.commit();
+            }
+        };
+    }
+
+    private void record(Stage stage, String templateId, long nanos, ExtractionEvent extraction) {
+        if (extraction != null) {
+            synchronized (extraction) {
+                extraction.add(stage, nanos);
+            }
+        }
+        String template = templateTag(templateId);
+        stageTimers.computeIfAbsent(stage.tag + '/' + template, k -> Timer.builder(STAGE_TIMER)
+                        .description("Duration of each stage of an extraction")
+                        .tag("stage", stage.tag)
+                        .tag("template", template)
+                        .publishPercentileHistogram()
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .minimumExpectedValue(MIN_EXPECTED)
+                        .maximumExpectedValue(MAX_EXPECTED)
+                        .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Marks the start of an extraction
+     *
+     * @param idFile the ID of the file
+     * @return the sample to pass to {@link #extractionEnded(Timer.Sample, String, String)}
+     */
+    public Timer.Sample extractionStarted(String idFile) {
+        inFlight.incrementAndGet();
+        ExtractionEvent event = new ExtractionEvent();
+        if (event.isEnabled()) {
+            event.idFile = idFile;
+            event.begin();
+            currentEvent.set(event);
+        }
+        return Timer.start(registry);
+    }
+
+    /**
+     * Marks the end of an extraction and records its total duration
+     *
+     * @param sample     the sample returned by {@link #extractionStarted(String)}
+     * @param templateId the template id, or {@code null} if it could not be resolved
+     * @param outcome    {@code success}, or the kind of error that ended the extraction
+     */
+    public void extractionEnded(Timer.Sample sample, String templateId, String outcome) {
+        inFlight.decrementAndGet();
+        ExtractionEvent event = currentEvent.get();
+        if (event != null) {
+            currentEvent.remove();
+            synchronized (event) {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.template = templateTag(templateId);
+                    event.outcome = outcome;
+                    event.commit();
+                }
+            }
+        }
+        sample.stop(Timer.builder(EXTRACTION_TIMER)
+                .description("Total duration of an extraction")
+                .tag("template", templateTag(templateId))
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MIN_EXPECTED)
+                .maximumExpectedValue(MAX_EXPECTED)
+                .register(registry));
+    }
+
+    /**
+     * Counts the fields extracted from a document
+     *
+     * @param templateId the template id
+     * @param fields     the number of field responses
+     */
+    public void fieldsExtracted(String templateId, int fields) {
+        Counter.builder(FIELDS_COUNTER)
+                .description("Field responses extracted")
+                .tag("template", templateTag(templateId))
+                .register(registry)
+                .increment(fields);
+    }
+
+    /**
+     * Counts a lookup of the OCR cache. Only called when the cache is enabled
+     *
+     * @param hit whether the OCR was found in the cache
+     */
+    public void ocrCacheLookup(boolean hit) {
+        Counter.builder(OCR_CACHE_COUNTER)
+                .description("Lookups of downloaded OCR results")
+                .tag("result", hit ? "hit" : "miss")
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Marks the start of a wait for an OCR result. It must be followed by
+     * {@link #ocrWaitEnded()}
+     */
+    public void ocrWaitStarted() {
+        ocrWaiters.incrementAndGet();
+    }
+
+    /**
+     * Marks the end of a wait for an OCR result
+     */
+    public void ocrWaitEnded() {
+        ocrWaiters.decrementAndGet();
+    }
+
+    private static String templateTag(String templateId) {
+        return templateId == null || templateId.isBlank() ? UNKNOWN_TEMPLATE : templateId;
+    }
+}
@@ -0,0 +1,62 @@
+package com.atix.demo.service.metrics;
+
+import org.springframework.stereotype.Component;
+
+import com.atix.demo.service.extraction.core.ExtractionMapperBus;
+import com.atix.demo.service.extraction.core.FormatterBus;
+import com.atix.demo.utils.mapper.MappeableIndex;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Exposes the resolution statistics of the {@link MappeableIndex dispatch indexes} of the
+ * {@link ExtractionMapperBus} and the {@link FormatterBus}, tagged by index.
+ * <p>
+ * {@code mappeable.index.lookups} counts the lookups by how they were answered (from the
+ * memoized resolutions or by walking the trie), {@code mappeable.index.unresolved} the trie
+ * walks that found no Mappeable and {@code mappeable.index.memoized} the number of types
+ * currently memoized.
+ */
+@Component
+public class MappeableIndexMetrics implements MeterBinder {
+
+    static final String LOOKUPS_COUNTER = "mappeable.index.lookups";
+    static final String UNRESOLVED_COUNTER = "mappeable.index.unresolved";
+    static final String MEMOIZED_GAUGE = "mappeable.index.memoized";
+
+    private final ExtractionMapperBus extractionMapperBus;
+    private final FormatterBus formatterBus;
+
+    public MappeableIndexMetrics(ExtractionMapperBus extractionMapperBus, FormatterBus formatterBus) {
+        this.extractionMapperBus = extractionMapperBus;
+        this.formatterBus = formatterBus;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bind(registry, "extraction-mapper", extractionMapperBus.getIndex());
+        bind(registry, "formatter", formatterBus.getIndex());
+    }
+
+    private static void bind(MeterRegistry registry, String name, MappeableIndex<?> index) {
+        FunctionCounter.builder(LOOKUPS_COUNTER, index, MappeableIndex::getMemoHits)
+                .description("Lookups of the Mappeable dispatch index")
+                .tags("index", name, "result", "memo_hit")
+                .register(registry);
+        FunctionCounter.builder(LOOKUPS_COUNTER, index, MappeableIndex::getTrieLookups)
+                .description("Lookups of the Mappeable dispatch index")
+                .tags("index", name, "result", "trie_lookup")
+                .register(registry);
+        FunctionCounter.builder(UNRESOLVED_COUNTER, index, MappeableIndex::getUnresolved)
+                .description("Lookups of the Mappeable dispatch index with no matching Mappeable")
+                .tag("index", name)
+                .register(registry);
+        Gauge.builder(MEMOIZED_GAUGE, index, MappeableIndex::getMemoizedTypes)
+                .description("Types whose resolution is memoized by the Mappeable dispatch index")
+                .tag("index", name)
+                .register(registry);
+    }
+}
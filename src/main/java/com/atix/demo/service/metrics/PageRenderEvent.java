@@ -0,0 +1,41 @@
+package com.atix.demo.service.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event of a rasterized page, to relate the memory of the page images with the GC
+ * activity of the extraction
+ */
+@Name("com.atix.demo.PageRender")
+@Label("Page Render")
+@Category({ "Demo Metallix", "Extraction" })
+@Description("Rasterization of a page of a PDF")
+@StackTrace(false)
+public class PageRenderEvent extends jdk.jfr.Event {
+
+    @Label("Id File")
+    String idFile;
+
+    @Label("Template")
+    String template;
+
+    @Label("Page")
+    int page;
+
+    @Label("DPI")
+    int dpi;
+
+    @Label("Pixel Bytes")
+    @DataAmount
+    long pixelBytes;
+
+    @Label("Render Time")
+    @Timespan
+    long renderTime;
+}
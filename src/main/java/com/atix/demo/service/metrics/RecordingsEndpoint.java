@@ -0,0 +1,165 @@
+package com.atix.demo.service.metrics;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+/**
+ * Actuator endpoint to manage JDK Flight Recorder recordings without access to the host:
+ * <ul>
+ * <li>{@code GET /actuator/recordings}: lists the recordings started by this endpoint;</li>
+ * <li>{@code POST /actuator/recordings}: starts a recording, with the {@code profile}
+ * settings unless other are given, keeping the last {@code maxAgeMinutes} (10 by
+ * default, capped at {@code management.recordings.max-age-minutes});</li>
+ * <li>{@code GET /actuator/recordings/{id}}: dumps a recording as a {@code .jfr} file,
+ * without stopping it;</li>
+ * <li>{@code DELETE /actuator/recordings/{id}}: stops and discards a recording.</li>
+ * </ul>
+ * The recordings include the {@link ExtractionEvent}, {@link PageRenderEvent} and
+ * {@link StorageCallEvent} events along with the GC and allocation events of the JVM, but
+ * also the environment variables and system properties of the process, which may contain
+ * credentials. The endpoint is therefore not exposed by default: it must be added to
+ * {@code management.endpoints.web.exposure.include}, and Actuator listens on its own
+ * {@code management.server.port}, bound to the management network.
+ * <p>
+ * At most {@code management.recordings.max-active} recordings run at once, and their
+ * maximum age is capped at {@code management.recordings.max-age-minutes}.
+ */
+@Component
+@Endpoint(id = "recordings")
+public class RecordingsEndpoint {
+
+    private static final String DEFAULT_SETTINGS = "profile";
+    private static final int DEFAULT_MAX_AGE_MINUTES = 10;
+
+    private final Map<Long, Recording> recordings = new ConcurrentHashMap<>();
+    private final int maxActive;
+    private final int maxAgeMinutesCap;
+
+    public RecordingsEndpoint(@Value("${management.recordings.max-active:2}") int maxActive,
+            @Value("${management.recordings.max-age-minutes:60}") int maxAgeMinutesCap) {
+        this.maxActive = maxActive;
+        this.maxAgeMinutesCap = maxAgeMinutesCap;
+    }
+
+    @ReadOperation
+    public List<RecordingDescriptor> recordings() {
+        return recordings.values().stream().map(RecordingDescriptor::of).toList();
+    }
+
+    @WriteOperation
+    public synchronized WebEndpointResponse<RecordingDescriptor> start(@Nullable String settings,
+            @Nullable Integer maxAgeMinutes) throws IOException, ParseException {
+        if (recordings.size() >= maxActive) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_TOO_MANY_REQUESTS);
+        }
+        int maxAge = maxAgeMinutes == null || maxAgeMinutes <= 0 ? DEFAULT_MAX_AGE_MINUTES : maxAgeMinutes;
+        Recording recording = new Recording(Configuration.getConfiguration(
+                settings == null || settings.isBlank() ? DEFAULT_SETTINGS : settings));
+        recording.setName("extraction-" + Instant.now());
+        recording.setToDisk(true);
+        recording.setMaxAge(Duration.ofMinutes(Math.min(maxAge, maxAgeMinutesCap)));
+        recording.enable(ExtractionEvent.class);
+        recording.enable(PageRenderEvent.class);
+        recording.enable(StorageCallEvent.class);
+        recording.start();
+        recordings.put(recording.getId(), recording);
+        return new WebEndpointResponse<>(RecordingDescriptor.of(recording));
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> dump(@Selector long id) throws IOException {
+        Recording recording = recordings.get(id);
+        if (recording == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        Path file = Files.createTempFile("recording-" + id + "-", ".jfr");
+        try {
+            recording.dump(file);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return new WebEndpointResponse<>(new TemporaryFileResource(file));
+    }
+
+    @DeleteOperation
+    public synchronized WebEndpointResponse<RecordingDescriptor> stop(@Selector long id) {
+        Recording recording = recordings.remove(id);
+        if (recording == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+        }
+        RecordingDescriptor descriptor = RecordingDescriptor.of(recording);
+        recording.close();
+        return new WebEndpointResponse<>(descriptor);
+    }
+
+    /**
+     * Description of a recording
+     */
+    public record RecordingDescriptor(long id, String name, String state, Instant startTime, Duration maxAge,
+            long size) {
+
+        static RecordingDescriptor of(Recording recording) {
+            return new RecordingDescriptor(recording.getId(), recording.getName(), recording.getState().name(),
+                    recording.getStartTime(), recording.getMaxAge(), recording.getSize());
+        }
+    }
+
+    /**
+     * Dump of a recording, deleted once it has been sent
+     */
+    private static final class TemporaryFileResource extends FileSystemResource {
+
+        TemporaryFileResource(Path file) {
+            super(file);
+        }
+
+        @Override
+        public boolean isFile() {
+            // Forces the content to be sent through getInputStream, which deletes the file on close
+            return false;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        Files.deleteIfExists(getFile().toPath());
+                    }
+                }
+            };
+        }
+    }
+}
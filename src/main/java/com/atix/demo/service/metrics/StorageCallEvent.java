@@ -0,0 +1,127 @@
+package com.atix.demo.service.metrics;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event of a call to the storage. Its duration is the latency of the call; for the
+ * calls that return a stream, it lasts until the stream is closed, so it includes the
+ * transfer of the bytes read.
+ */
+@Name("com.atix.demo.StorageCall")
+@Label("Storage Call")
+@Category({ "Demo Metallix", "Storage" })
+@Description("Call to the storage provider")
+@StackTrace(false)
+public class StorageCallEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Bucket")
+    String bucket;
+
+    @Label("Path")
+    String path;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    /**
+     * Starts the event of a call
+     *
+     * @param operation the name of the operation
+     * @param bucket    the bucket
+     * @param path      the path or prefix, if any
+     * @return the started event
+     */
+    public static StorageCallEvent begin(String operation, String bucket, String path) {
+        StorageCallEvent event = new StorageCallEvent();
+        if (event.isEnabled()) {
+            event.operation = operation;
+            event.bucket = bucket;
+            event.path = path;
+            event.begin();
+        }
+        return event;
+    }
+
+    /**
+     * Ends the event of a call and commits it
+     *
+     * @param bytes     the bytes transferred
+     * @param succeeded whether the call succeeded
+     */
+    public void complete(long bytes, boolean succeeded) {
+        if (isEnabled()) {
+            this.bytes = bytes;
+            this.succeeded = succeeded;
+            commit();
+        }
+    }
+
+    /**
+     * Completes the event when a stream returned by the call is closed, with the bytes read
+     *
+     * @param stream the stream returned by the call
+     * @return the stream to return to the caller
+     */
+    public InputStream track(InputStream stream) {
+        if (!isEnabled()) {
+            return stream;
+        }
+        return new FilterInputStream(stream) {
+            private long read;
+            private boolean closed;
+
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    read++;
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int n = super.read(buffer, offset, length);
+                if (n > 0) {
+                    read += n;
+                }
+                return n;
+            }
+
+            @Override
+            public long skip(long n) throws IOException {
+                long skipped = super.skip(n);
+                read += skipped;
+                return skipped;
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    if (!closed) {
+                        closed = true;
+                        complete(read, true);
+                    }
+                }
+            }
+        };
+    }
+}
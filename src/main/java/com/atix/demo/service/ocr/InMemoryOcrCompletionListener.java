@@ -0,0 +1,103 @@
+package com.atix.demo.service.ocr;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+/**
+ * Implementación en memoria de {@link OcrCompletionListener}. Cada idFile tiene un
+ * {@link CompletableFuture} sobre el que se bloquean los hilos que esperan el OCR; al
+ * publicarse la notificación el future se completa y todos los hilos despiertan.
+ *
+ * <p>
+ * La notificación queda registrada como un future completo durante
+ * {@code ocr.completion.ttl-seconds}, de modo que un hilo que empieza a esperar después de
+ * la publicación retorna de inmediato en lugar de esperar el siguiente sondeo. La espera que
+ * recibe la notificación la consume: la siguiente llamada a
+ * {@link #await(String, long, TimeUnit)} vuelve a bloquearse hasta una nueva publicación, así
+ * una notificación prematura no hace que quien espera consulte el almacenamiento sin pausa.
+ * Los futures pendientes no expiran; se liberan con {@link #discard(String)}.
+ *
+ * <p>
+ * Sirve como sustituto local de un sistema de mensajería externo: cualquier productor
+ * dentro de la aplicación (o el endpoint de notificación) puede publicar en él.
+ */
+@Service
+public class InMemoryOcrCompletionListener implements OcrCompletionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryOcrCompletionListener.class);
+
+    private final Cache<String, CompletableFuture<Void>> pending;
+
+    public InMemoryOcrCompletionListener(@Value("${ocr.completion.ttl-seconds:60}") long ttlSeconds) {
+        long completedTtlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+        this.pending = Caffeine.newBuilder()
+                .expireAfter(new Expiry<String, CompletableFuture<Void>>() {
+                    @Override
+                    public long expireAfterCreate(String key, CompletableFuture<Void> future, long currentTime) {
+                        return future.isDone() ? completedTtlNanos : Long.MAX_VALUE;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CompletableFuture<Void> future, long currentTime,
+                            long currentDuration) {
+                        return expireAfterCreate(key, future, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CompletableFuture<Void> future, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public void publish(String idFile) {
+        // Se completa dentro de compute para que la expiración se calcule con el future ya completo
+        pending.asMap().compute(idFile, (key, existing) -> {
+            CompletableFuture<Void> future = existing != null ? existing : new CompletableFuture<>();
+            future.complete(null);
+            return future;
+        });
+        logger.debug("OCR listo para idFile [{}], despertando hilos en espera", idFile);
+    }
+
+    @Override
+    public boolean await(String idFile, long timeout, TimeUnit unit) throws InterruptedException {
+        CompletableFuture<Void> future = pending.get(idFile, key -> new CompletableFuture<>());
+        try {
+            future.get(timeout, unit);
+            // La notificación se consume; los hilos que esperaban el mismo future también despiertan
+            pending.asMap().remove(idFile, future);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            logger.warn("La espera del OCR para idFile [{}] terminó con error", idFile, e.getCause());
+            return false;
+        }
+    }
+
+    @Override
+    public void discard(String idFile) {
+        // Una notificación ya publicada se conserva hasta que expire; sólo se retira la espera pendiente
+        CompletableFuture<Void> future = pending.getIfPresent(idFile);
+        if (future != null && !future.isDone() && pending.asMap().remove(idFile, future)) {
+            // Despierta a cualquier otro hilo que siguiera esperando para que vuelva a consultar
+            future.complete(null);
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.atix.demo.service.ocr;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * Codificación binaria compacta de un JSON OCR.
+ *
+ * <p>
+ * El modelo {@code DocumentSeiz} pertenece a seiz-core, por lo que la codificación se hace
+ * sobre el árbol JSON y no sobre sus clases. El documento se guarda en columnas:
+ * <ul>
+ * <li>una tabla de cadenas sin repetidos (nombres de campos y textos de las palabras);</li>
+ * <li>una columna de {@code double} con los números decimales (confianzas, cajas);</li>
+ * <li>un flujo de tokens de un byte, con referencias a las cadenas y enteros en varint.</li>
+ * </ul>
+ * Decodificarlo no requiere volver a tokenizar texto ni convertir números, y ocupa una
+ * fracción del JSON original porque los nombres de campos repetidos en cada palabra se
+ * guardan una sola vez.
+ */
+public class OcrBinaryCodec {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final int MAGIC = 0x4F435242; // "OCRB"
+    private static final byte VERSION = 1;
+
+    private static final byte BEGIN_OBJECT = 1;
+    private static final byte END_OBJECT = 2;
+    private static final byte BEGIN_ARRAY = 3;
+    private static final byte END_ARRAY = 4;
+    private static final byte NAME = 5;
+    private static final byte STRING = 6;
+    private static final byte LONG = 7;
+    private static final byte DOUBLE = 8;
+    private static final byte NUMBER_TEXT = 9;
+    private static final byte TRUE = 10;
+    private static final byte FALSE = 11;
+    private static final byte NULL = 12;
+
+    private OcrBinaryCodec() {
+    }
+
+    /**
+     * Codifica un JSON OCR.
+     *
+     * @param json stream del JSON OCR. No se cierra
+     * @return el documento codificado
+     * @throws IOException si hay un error al leer o procesar el JSON
+     */
+    public static byte[] encode(InputStream json) throws IOException {
+        Encoder encoder = new Encoder();
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                encoder.write(parser, token);
+            }
+        }
+        return encoder.toByteArray();
+    }
+
+    /**
+     * Decodifica un documento como árbol JSON, listo para ser vinculado a un modelo.
+     *
+     * @param binary el documento codificado
+     * @return la raíz del árbol JSON
+     * @throws IllegalArgumentException si el contenido no es un documento codificado
+     */
+    public static JsonElement decode(byte[] binary) {
+        Decoder decoder = new Decoder(binary);
+        return decoder.hasNext() ? decoder.readTree() : JsonNull.INSTANCE;
+    }
+
+    /**
+     * Reconstruye el JSON OCR a partir de un documento codificado.
+     *
+     * @param binary el documento codificado
+     * @return los bytes del JSON (UTF-8)
+     * @throws IOException si hay un error al generar el JSON
+     */
+    public static byte[] toJson(byte[] binary) throws IOException {
+        Decoder decoder = new Decoder(binary);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(binary.length * 3);
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+            while (decoder.hasNext()) {
+                decoder.writeToken(generator);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static class Encoder {
+        private final Map<String, Integer> stringIndexes = new HashMap<>();
+        private final ByteArrayOutputStream strings = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream tokens = new ByteArrayOutputStream();
+        private double[] doubles = new double[256];
+        private int doubleCount;
+
+        void write(JsonParser parser, JsonToken token) throws IOException {
+            switch (token) {
+                case START_OBJECT -> tokens.write(BEGIN_OBJECT);
+                case END_OBJECT -> tokens.write(END_OBJECT);
+                case START_ARRAY -> tokens.write(BEGIN_ARRAY);
+                case END_ARRAY -> tokens.write(END_ARRAY);
+                case FIELD_NAME -> writeString(NAME, parser.getCurrentName());
+                case VALUE_STRING -> writeString(STRING, parser.getText());
+                case VALUE_NUMBER_INT -> {
+                    if (parser.getNumberType() == JsonParser.NumberType.BIG_INTEGER) {
+                        writeString(NUMBER_TEXT, parser.getText());
+                    } else {
+                        tokens.write(LONG);
+                        writeVarLong(tokens, zigZag(parser.getLongValue()));
+                    }
+                }
+                case VALUE_NUMBER_FLOAT -> {
+                    tokens.write(DOUBLE);
+                    if (doubleCount == doubles.length) {
+                        doubles = Arrays.copyOf(doubles, doubleCount * 2);
+                    }
+                    doubles[doubleCount++] = parser.getDoubleValue();
+                }
+                case VALUE_TRUE -> tokens.write(TRUE);
+                case VALUE_FALSE -> tokens.write(FALSE);
+                case VALUE_NULL -> tokens.write(NULL);
+                default -> throw new IOException("Token JSON no soportado: " + token);
+            }
+        }
+
+        private void writeString(byte type, String value) {
+            Integer index = stringIndexes.get(value);
+            if (index == null) {
+                index = stringIndexes.size();
+                stringIndexes.put(value, index);
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                writeVarLong(strings, bytes.length);
+                strings.write(bytes, 0, bytes.length);
+            }
+            tokens.write(type);
+            writeVarLong(tokens, index);
+        }
+
+        byte[] toByteArray() {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(
+                    strings.size() + doubleCount * Double.BYTES + tokens.size() + 32);
+            out.writeBytes(ByteBuffer.allocate(5).putInt(MAGIC).put(VERSION).array());
+            writeVarLong(out, stringIndexes.size());
+            out.writeBytes(strings.toByteArray());
+            writeVarLong(out, doubleCount);
+            ByteBuffer doubleColumn = ByteBuffer.allocate(doubleCount * Double.BYTES);
+            for (int i = 0; i < doubleCount; i++) {
+                doubleColumn.putDouble(doubles[i]);
+            }
+            out.writeBytes(doubleColumn.array());
+            writeVarLong(out, tokens.size());
+            out.writeBytes(tokens.toByteArray());
+            return out.toByteArray();
+        }
+    }
+
+    private static class Decoder {
+        private final String[] strings;
+        private final double[] doubles;
+        private final ByteBuffer tokens;
+        private int nextDouble;
+
+        Decoder(byte[] binary) {
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(binary);
+                if (buffer.getInt() != MAGIC || buffer.get() != VERSION) {
+                    throw new IllegalArgumentException("El contenido no es un documento OCR codificado");
+                }
+                strings = new String[(int) readVarLong(buffer)];
+                for (int i = 0; i < strings.length; i++) {
+                    int length = (int) readVarLong(buffer);
+                    strings[i] = new String(binary, buffer.position(), length, StandardCharsets.UTF_8);
+                    buffer.position(buffer.position() + length);
+                }
+                doubles = new double[(int) readVarLong(buffer)];
+                for (int i = 0; i < doubles.length; i++) {
+                    doubles[i] = buffer.getDouble();
+                }
+                int tokenCount = (int) readVarLong(buffer);
+                tokens = buffer.slice(buffer.position(), tokenCount);
+            } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Documento OCR codificado truncado", e);
+            }
+        }
+
+        boolean hasNext() {
+            return tokens.hasRemaining();
+        }
+
+        JsonElement readTree() {
+            return readValue(tokens.get());
+        }
+
+        private JsonElement readValue(byte type) {
+            switch (type) {
+                case BEGIN_OBJECT: {
+                    JsonObject object = new JsonObject();
+                    byte next;
+                    while ((next = tokens.get()) != END_OBJECT) {
+                        if (next != NAME) {
+                            throw new IllegalArgumentException("Se esperaba un nombre de campo");
+                        }
+                        String name = strings[(int) readVarLong(tokens)];
+                        object.add(name, readValue(tokens.get()));
+                    }
+                    return object;
+                }
+                case BEGIN_ARRAY: {
+                    JsonArray array = new JsonArray();
+                    byte next;
+                    while ((next = tokens.get()) != END_ARRAY) {
+                        array.add(readValue(next));
+                    }
+                    return array;
+                }
+                case STRING:
+                    return new JsonPrimitive(strings[(int) readVarLong(tokens)]);
+                case LONG:
+                    return new JsonPrimitive(unZigZag(readVarLong(tokens)));
+                case DOUBLE:
+                    return new JsonPrimitive(doubles[nextDouble++]);
+                case NUMBER_TEXT:
+                    return new JsonPrimitive(new BigDecimal(strings[(int) readVarLong(tokens)]));
+                case TRUE:
+                    return new JsonPrimitive(true);
+                case FALSE:
+                    return new JsonPrimitive(false);
+                case NULL:
+                    return JsonNull.INSTANCE;
+                default:
+                    throw new IllegalArgumentException("Token inesperado: " + type);
+            }
+        }
+
+        void writeToken(JsonGenerator generator) throws IOException {
+            byte type = tokens.get();
+            switch (type) {
+                case BEGIN_OBJECT -> generator.writeStartObject();
+                case END_OBJECT -> generator.writeEndObject();
+                case BEGIN_ARRAY -> generator.writeStartArray();
+                case END_ARRAY -> generator.writeEndArray();
+                case NAME -> generator.writeFieldName(strings[(int) readVarLong(tokens)]);
+                case STRING -> generator.writeString(strings[(int) readVarLong(tokens)]);
+                case LONG -> generator.writeNumber(unZigZag(readVarLong(tokens)));
+                case DOUBLE -> generator.writeNumber(doubles[nextDouble++]);
+                case NUMBER_TEXT -> generator.writeNumber(strings[(int) readVarLong(tokens)]);
+                case TRUE -> generator.writeBoolean(true);
+                case FALSE -> generator.writeBoolean(false);
+                case NULL -> generator.writeNull();
+                default -> throw new IllegalArgumentException("Token inesperado: " + type);
+            }
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
@@ -0,0 +1,43 @@
+package com.atix.demo.service.ocr;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contrato para notificar y esperar la finalización del OCR de un documento.
+ *
+ * <p>
+ * Los productores (por ejemplo, el proceso que escribe el resultado en el bucket de OCR)
+ * publican "OCR listo para idFile X" mediante {@link #publish(String)}; los hilos que
+ * esperan el resultado se bloquean en {@link #await(String, long, TimeUnit)} y despiertan
+ * en cuanto se publica la notificación, sin necesidad de consultar el almacenamiento
+ * continuamente.
+ */
+public interface OcrCompletionListener {
+
+    /**
+     * Publica que el resultado del OCR para un archivo ya está disponible.
+     *
+     * @param idFile el ID del archivo cuyo OCR finalizó
+     */
+    void publish(String idFile);
+
+    /**
+     * Espera la notificación de finalización del OCR para un archivo.
+     *
+     * @param idFile  el ID del archivo
+     * @param timeout tiempo máximo de espera
+     * @param unit    unidad del tiempo de espera
+     * @return {@code true} si se recibió la notificación antes de agotar el tiempo de espera.
+     *         La notificación recibida se consume, de modo que la siguiente espera se bloquea
+     *         hasta una nueva publicación
+     * @throws InterruptedException si la espera es interrumpida
+     */
+    boolean await(String idFile, long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Libera los recursos asociados a la espera de un archivo cuando ya no hay interesados.
+     *
+     * @param idFile el ID del archivo
+     */
+    void discard(String idFile);
+}
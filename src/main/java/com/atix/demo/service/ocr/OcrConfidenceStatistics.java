@@ -0,0 +1,51 @@
+package com.atix.demo.service.ocr;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Estadísticas de "confidence" de un resultado OCR, calculadas en una sola pasada por
+ * {@link OcrConfidenceStatisticsCollector}.
+ *
+ * <p>
+ * Los valores globales consideran tanto la confianza general de cada página como la de
+ * cada palabra; las estadísticas por página consideran sólo las palabras de la página.
+ */
+@AllArgsConstructor
+@Getter
+public class OcrConfidenceStatistics {
+
+    /**
+     * Cantidad de valores de confianza encontrados
+     */
+    private final long count;
+    private final double average;
+    private final double min;
+    private final double max;
+    private final double p50;
+    private final double p90;
+    private final double p99;
+    /**
+     * Estadísticas de cada página, en el mismo orden del documento
+     */
+    private final List<PageStatistics> pages;
+
+    /**
+     * Estadísticas de confianza de una página
+     */
+    @AllArgsConstructor
+    @Getter
+    public static class PageStatistics {
+        private final int pageIndex;
+        /**
+         * Confianza general reportada para la página, o {@code NaN} si no existe
+         */
+        private final double pageConfidence;
+        private final long wordCount;
+        private final double average;
+        private final double min;
+        private final double max;
+    }
+}
@@ -0,0 +1,166 @@
+package com.atix.demo.service.ocr;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Calcula las estadísticas de "confidence" de un JSON OCR recorriéndolo token a token con
+ * un {@link JsonParser}, sin construir el árbol del documento ni listas de valores.
+ *
+ * <p>
+ * Mínimo, máximo y promedio se acumulan en primitivos; los percentiles se obtienen de un
+ * histograma fijo con resolución de {@code 1 / HISTOGRAM_BINS}, suficiente para valores de
+ * confianza en el rango [0, 1]. Los valores fuera de ese rango se acotan a los extremos del
+ * histograma pero se consideran con su valor real para mínimo, máximo y promedio.
+ */
+public class OcrConfidenceStatisticsCollector {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final String PAGES = "pages";
+    private static final String WORDS = "words";
+    private static final String CONFIDENCE = "confidence";
+    private static final int HISTOGRAM_BINS = 1000;
+
+    private final int[] histogram = new int[HISTOGRAM_BINS + 1];
+    private long count;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private final List<OcrConfidenceStatistics.PageStatistics> pages = new ArrayList<>();
+
+    private OcrConfidenceStatisticsCollector() {
+    }
+
+    /**
+     * Calcula las estadísticas de confianza de un JSON OCR en una sola pasada.
+     *
+     * @param inputStream Stream del archivo JSON OCR. Se cierra al terminar la lectura
+     * @return las estadísticas calculadas
+     * @throws IOException Si hay un error al leer o procesar el JSON
+     */
+    public static OcrConfidenceStatistics collect(InputStream inputStream) throws IOException {
+        OcrConfidenceStatisticsCollector collector = new OcrConfidenceStatisticsCollector();
+        try (JsonParser parser = JSON_FACTORY.createParser(inputStream)) {
+            collector.readRoot(parser);
+        }
+        return collector.toStatistics();
+    }
+
+    private void readRoot(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            if (PAGES.equals(name) && token == JsonToken.START_ARRAY) {
+                readPages(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private void readPages(JsonParser parser) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (token == JsonToken.START_OBJECT) {
+                readPage(parser, pages.size());
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private void readPage(JsonParser parser, int pageIndex) throws IOException {
+        double pageConfidence = Double.NaN;
+        long wordCount = 0;
+        double wordSum = 0.0;
+        double wordMin = Double.POSITIVE_INFINITY;
+        double wordMax = Double.NEGATIVE_INFINITY;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            if (CONFIDENCE.equals(name) && token.isNumeric()) {
+                pageConfidence = parser.getDoubleValue();
+                accept(pageConfidence);
+            } else if (WORDS.equals(name) && token == JsonToken.START_ARRAY) {
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+                    if (token != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        continue;
+                    }
+                    double value = readWordConfidence(parser);
+                    if (!Double.isNaN(value)) {
+                        accept(value);
+                        wordCount++;
+                        wordSum += value;
+                        wordMin = Math.min(wordMin, value);
+                        wordMax = Math.max(wordMax, value);
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        pages.add(new OcrConfidenceStatistics.PageStatistics(pageIndex, pageConfidence, wordCount,
+                wordCount == 0 ? 0.0 : wordSum / wordCount,
+                wordCount == 0 ? 0.0 : wordMin,
+                wordCount == 0 ? 0.0 : wordMax));
+    }
+
+    /**
+     * Lee un objeto palabra y devuelve su confianza, o {@code NaN} si no la tiene
+     */
+    private double readWordConfidence(JsonParser parser) throws IOException {
+        double value = Double.NaN;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            if (CONFIDENCE.equals(name) && token.isNumeric()) {
+                value = parser.getDoubleValue();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return value;
+    }
+
+    private void accept(double value) {
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        int bin = (int) Math.round(value * HISTOGRAM_BINS);
+        histogram[Math.max(0, Math.min(HISTOGRAM_BINS, bin))]++;
+    }
+
+    private OcrConfidenceStatistics toStatistics() {
+        if (count == 0) {
+            return new OcrConfidenceStatistics(0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, List.copyOf(pages));
+        }
+        return new OcrConfidenceStatistics(count, sum / count, min, max,
+                percentile(0.50), percentile(0.90), percentile(0.99), List.copyOf(pages));
+    }
+
+    private double percentile(double quantile) {
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int bin = 0; bin < histogram.length; bin++) {
+            seen += histogram[bin];
+            if (seen >= rank) {
+                // Los extremos del histograma acumulan valores fuera de rango: se usa el valor real
+                return Math.max(min, Math.min(max, (double) bin / HISTOGRAM_BINS));
+            }
+        }
+        return max;
+    }
+}
@@ -0,0 +1,144 @@
+package com.atix.demo.service.ocr;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Caché local de los resultados OCR ya descargados, guardados con la codificación binaria
+ * de {@link OcrBinaryCodec} junto con sus estadísticas de confianza. Evita volver a
+ * descargar y parsear el JSON cuando el mismo idFile se vuelve a extraer (reprocesos,
+ * extracciones de prueba, ajustes de plantillas).
+ *
+ * <p>
+ * La caché está acotada por el tamaño total de los documentos codificados
+ * ({@code ocr.cache.maximum-size-mb}) y las entradas expiran tras
+ * {@code ocr.cache.ttl-minutes} sin ser usadas.
+ *
+ * <p>
+ * La codificación de un documento recién descargado se hace en un hilo propio, fuera de la
+ * solicitud que lo descargó. Si hay demasiados documentos esperando ser codificados
+ * ({@code ocr.cache.encode-queue-capacity}) el documento simplemente no se guarda. Una
+ * invalidación descarta también la codificación pendiente de ese idFile, de modo que un OCR
+ * viejo nunca se guarda después de invalidado.
+ */
+@Component
+public class OcrDocumentCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(OcrDocumentCache.class);
+
+    private final boolean enabled;
+    private final Cache<String, Entry> documents;
+    private final ThreadPoolExecutor encoder;
+    /**
+     * Codificación pendiente de cada idFile. Una codificación sólo se guarda si sigue siendo
+     * la pendiente de su idFile; las invalidaciones y las codificaciones más nuevas la
+     * reemplazan
+     */
+    private final ConcurrentMap<String, Object> pending = new ConcurrentHashMap<>();
+
+    public OcrDocumentCache(@Value("${ocr.cache.enabled:true}") boolean enabled,
+            @Value("${ocr.cache.maximum-size-mb:256}") long maximumSizeMb,
+            @Value("${ocr.cache.ttl-minutes:60}") long ttlMinutes,
+            @Value("${ocr.cache.encode-queue-capacity:32}") int encodeQueueCapacity) {
+        this.enabled = enabled;
+        this.encoder = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(encodeQueueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "ocr-cache-encoder");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.documents = Caffeine.newBuilder()
+                .maximumWeight(maximumSizeMb * 1024 * 1024)
+                .weigher((String idFile, Entry entry) -> entry.binary().length)
+                .expireAfterAccess(Duration.ofMinutes(ttlMinutes))
+                .build();
+    }
+
+    /**
+     * @return {@code true} si la caché está habilitada ({@code ocr.cache.enabled})
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Obtiene el contexto OCR de un idFile si está en caché.
+     *
+     * @param idFile el ID del archivo
+     * @return un nuevo contexto creado desde la caché, o {@code null} si no está
+     */
+    public OcrDocumentContext get(String idFile) {
+        if (!enabled) {
+            return null;
+        }
+        Entry entry = documents.getIfPresent(idFile);
+        return entry == null ? null : OcrDocumentContext.fromBinary(idFile, entry.binary(), entry.statistics());
+    }
+
+    /**
+     * Guarda en caché el resultado OCR de un contexto recién descargado. La codificación se
+     * hace de forma asíncrona; un error al codificarlo no interrumpe la extracción,
+     * simplemente no se guarda.
+     *
+     * @param context el contexto con el JSON OCR
+     */
+    public void put(OcrDocumentContext context) {
+        if (!enabled) {
+            return;
+        }
+        String idFile = context.getIdFile();
+        Object token = new Object();
+        pending.put(idFile, token);
+        try {
+            encoder.execute(() -> {
+                try {
+                    Entry entry = new Entry(context.getBinary(), context.getStatistics());
+                    // Se comprueba y se guarda bajo el bloqueo de la clave, para que una
+                    // invalidación concurrente no quede pisada
+                    documents.asMap().compute(idFile,
+                            (key, existing) -> pending.remove(idFile, token) ? entry : existing);
+                } catch (IOException | RuntimeException e) {
+                    pending.remove(idFile, token);
+                    logger.warn("No se pudo guardar en caché el OCR de idFile [{}]", idFile, e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(idFile, token);
+            logger.debug("Cola de codificación llena, no se guarda en caché el OCR de idFile [{}]", idFile);
+        }
+    }
+
+    /**
+     * Descarta el resultado OCR de un idFile, por ejemplo cuando se genera uno nuevo.
+     *
+     * @param idFile el ID del archivo
+     */
+    public void invalidate(String idFile) {
+        pending.remove(idFile);
+        documents.invalidate(idFile);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        encoder.shutdownNow();
+    }
+
+    private record Entry(byte[] binary, OcrConfidenceStatistics statistics) {
+    }
+}
@@ -0,0 +1,126 @@
+package com.atix.demo.service.ocr;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+import com.google.gson.Gson;
+import com.xirius.seiz.core.commons.model.text.DocumentSeiz;
+
+import lombok.Getter;
+
+/**
+ * Contexto del resultado OCR de un documento para una única solicitud de extracción.
+ *
+ * <p>
+ * El contenido se descarga del almacenamiento una sola vez y las representaciones
+ * derivadas ({@link DocumentSeiz} y {@link OcrConfidenceStatistics}) se calculan de forma
+ * perezosa la primera vez que se solicitan, de modo que todas las etapas del pipeline
+ * comparten la misma copia.
+ *
+ * <p>
+ * Un contexto también puede crearse desde la codificación binaria de {@link OcrBinaryCodec}
+ * guardada en {@link OcrDocumentCache}; en ese caso el {@link DocumentSeiz} se vincula desde
+ * el árbol decodificado y el JSON sólo se reconstruye si alguien lo solicita.
+ */
+public class OcrDocumentContext {
+
+    private static final Gson GSON = new Gson();
+
+    /**
+     * ID del archivo al que pertenece el OCR
+     */
+    @Getter
+    private final String idFile;
+    private byte[] content;
+    private final byte[] binary;
+    private DocumentSeiz documentSeiz;
+    private OcrConfidenceStatistics statistics;
+
+    public OcrDocumentContext(String idFile, byte[] content) {
+        this(idFile, content, null, null);
+    }
+
+    private OcrDocumentContext(String idFile, byte[] content, byte[] binary, OcrConfidenceStatistics statistics) {
+        this.idFile = idFile;
+        this.content = content;
+        this.binary = binary;
+        this.statistics = statistics;
+    }
+
+    /**
+     * Crea un contexto a partir de un documento codificado con {@link OcrBinaryCodec}.
+     *
+     * @param idFile     ID del archivo al que pertenece el OCR
+     * @param binary     el documento codificado
+     * @param statistics las estadísticas de confianza ya calculadas, o {@code null}
+     * @return el contexto del OCR
+     */
+    public static OcrDocumentContext fromBinary(String idFile, byte[] binary, OcrConfidenceStatistics statistics) {
+        return new OcrDocumentContext(idFile, null, binary, statistics);
+    }
+
+    /**
+     * Obtiene el contenido crudo del JSON OCR. El arreglo no debe modificarse.
+     *
+     * @return los bytes del JSON OCR
+     * @throws IOException si hay un error al reconstruir el JSON
+     */
+    public synchronized byte[] getContent() throws IOException {
+        if (content == null) {
+            content = OcrBinaryCodec.toJson(binary);
+        }
+        return content;
+    }
+
+    /**
+     * Abre un nuevo stream sobre el contenido del JSON OCR sin volver a descargarlo.
+     *
+     * @return un {@link InputStream} con el JSON OCR
+     * @throws IOException si hay un error al reconstruir el JSON
+     */
+    public InputStream openStream() throws IOException {
+        return new ByteArrayInputStream(getContent());
+    }
+
+    /**
+     * Obtiene el documento OCR parseado, parseándolo sólo la primera vez.
+     *
+     * @return el {@link DocumentSeiz} del OCR
+     * @throws IOException si hay un error al leer el JSON
+     */
+    public synchronized DocumentSeiz getDocumentSeiz() throws IOException {
+        if (documentSeiz == null) {
+            documentSeiz = binary != null
+                    ? GSON.fromJson(OcrBinaryCodec.decode(binary), DocumentSeiz.class)
+                    : GSON.fromJson(new InputStreamReader(openStream(), StandardCharsets.UTF_8), DocumentSeiz.class);
+        }
+        return documentSeiz;
+    }
+
+    /**
+     * Obtiene el documento codificado con {@link OcrBinaryCodec}. Si el contexto se creó
+     * desde el JSON, se codifica en cada llamada.
+     *
+     * @return el documento codificado
+     * @throws IOException si hay un error al procesar el JSON
+     */
+    public byte[] getBinary() throws IOException {
+        return binary != null ? binary : OcrBinaryCodec.encode(openStream());
+    }
+
+    /**
+     * Obtiene las estadísticas de confianza del OCR, calculándolas sólo la primera vez.
+     *
+     * @return las estadísticas de confianza
+     * @throws IOException si hay un error al procesar el JSON
+     */
+    public synchronized OcrConfidenceStatistics getStatistics() throws IOException {
+        if (statistics == null) {
+            statistics = OcrConfidenceStatisticsCollector.collect(openStream());
+        }
+        return statistics;
+    }
+}
@@ -0,0 +1,284 @@
+package com.atix.demo.service.storage;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import com.atix.demo.service.metrics.StorageCallEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+/**
+ * StorageProvider that decorates the configured provider, memoizing object existence,
+ * prefix listings and whether a prefix holds any object. Found objects and non-empty listings are kept for
+ * {@code storage.metadata-cache.ttl-seconds}; missing objects and empty listings are kept
+ * for the shorter {@code storage.metadata-cache.negative-ttl-ms}, so that an object that
+ * is about to appear (e.g. an OCR result being polled) is seen soon after it is written.
+ * <p>
+ * Writes made through this provider invalidate the affected entries. Objects written by
+ * other processes are seen once their entries expire, or immediately after calling
+ * {@link #invalidateMetadata(String, String)}.
+ * <p>
+ * Every call that reaches the configured provider is recorded as a {@link StorageCallEvent}
+ * when JDK Flight Recorder is running.
+ */
+@Service
+@Primary
+public class CachingStorageProvider implements StorageProvider {
+
+    public static final String BACKING_STORAGE_PROVIDER = "backingStorageProvider";
+
+    private final StorageProvider delegate;
+    private final Cache<Key, Boolean> existence;
+    private final Cache<Key, List<String>> listings;
+    private final Cache<Key, Boolean> nonEmptyPrefixes;
+
+    public CachingStorageProvider(@Qualifier(BACKING_STORAGE_PROVIDER) StorageProvider delegate,
+            @Value("${storage.metadata-cache.maximum-size:10000}") long maximumSize,
+            @Value("${storage.metadata-cache.ttl-seconds:30}") long ttlSeconds,
+            @Value("${storage.metadata-cache.negative-ttl-ms:1000}") long negativeTtlMs) {
+        this.delegate = delegate;
+        long ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        long negativeTtlNanos = TimeUnit.MILLISECONDS.toNanos(negativeTtlMs);
+        this.existence = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new NegativeAwareExpiry<Boolean>(found -> !found, ttlNanos, negativeTtlNanos))
+                .build();
+        this.listings = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new NegativeAwareExpiry<List<String>>(List::isEmpty, ttlNanos, negativeTtlNanos))
+                .build();
+        this.nonEmptyPrefixes = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new NegativeAwareExpiry<Boolean>(found -> !found, ttlNanos, negativeTtlNanos))
+                .build();
+    }
+
+    @Override
+    public Object putObject(String bucket, String path, InputStream content, String contentType) {
+        StorageCallEvent event = StorageCallEvent.begin("put", bucket, path);
+        CountingInputStream counted = new CountingInputStream(content);
+        boolean succeeded = false;
+        try {
+            Object result = delegate.putObject(bucket, path, counted, contentType);
+            succeeded = true;
+            return result;
+        } finally {
+            event.complete(counted.getCount(), succeeded);
+            invalidateObject(bucket, path);
+        }
+    }
+
+    @Override
+    public boolean exists(String bucket, String path) {
+        return existence.get(new Key(bucket, path), key -> traced("exists", bucket, path,
+                () -> delegate.exists(bucket, path)));
+    }
+
+    @Override
+    public InputStream getObject(String bucket, String path) {
+        StorageCallEvent event = StorageCallEvent.begin("get", bucket, path);
+        return event.track(traced(event, () -> delegate.getObject(bucket, path)));
+    }
+
+    @Override
+    public InputStream openStream(String bucket, String path) {
+        StorageCallEvent event = StorageCallEvent.begin("open", bucket, path);
+        return event.track(traced(event, () -> delegate.openStream(bucket, path)));
+    }
+
+    @Override
+    public InputStream getObjectRange(String bucket, String path, long offset, long length) throws IOException {
+        StorageCallEvent event = StorageCallEvent.begin("range", bucket, path);
+        return event.track(traced(event, () -> delegate.getObjectRange(bucket, path, offset, length)));
+    }
+
+    @Override
+    public SpilledObject spillToTempFile(String bucket, String path) throws IOException {
+        StorageCallEvent event = StorageCallEvent.begin("spill", bucket, path);
+        SpilledObject spilled = traced(event, () -> delegate.spillToTempFile(bucket, path));
+        event.complete(Files.size(spilled.getPath()), true);
+        return spilled;
+    }
+
+    @Override
+    public String getUploadSignedUrl(String bucket, String path, long minutes, Map<String, String> metadata) {
+        return traced("sign-upload", bucket, path, () -> delegate.getUploadSignedUrl(bucket, path, minutes, metadata));
+    }
+
+    /**
+     * Not cached, since the result is vendor-specific and may be lazily paged
+     */
+    @Override
+    public Object listFiles(String bucket, String directoryPrefix) {
+        return traced("list", bucket, directoryPrefix, () -> delegate.listFiles(bucket, directoryPrefix));
+    }
+
+    @Override
+    public List<String> listObjectNames(String bucket, String directoryPrefix) {
+        return listings.get(new Key(bucket, directoryPrefix), key -> traced("list", bucket, directoryPrefix,
+                () -> List.copyOf(delegate.listObjectNames(bucket, directoryPrefix))));
+    }
+
+    /**
+     * Answered from a cached listing of the same prefix when there is one
+     */
+    @Override
+    public boolean hasObjects(String bucket, String directoryPrefix) {
+        Key key = new Key(bucket, directoryPrefix);
+        List<String> listing = listings.getIfPresent(key);
+        if (listing != null) {
+            return !listing.isEmpty();
+        }
+        return nonEmptyPrefixes.get(key, k -> traced("has-objects", bucket, directoryPrefix,
+                () -> delegate.hasObjects(bucket, directoryPrefix)));
+    }
+
+    @Override
+    public String getDownloadSignedUrl(String bucket, String path, long minutes) {
+        return traced("sign-download", bucket, path, () -> delegate.getDownloadSignedUrl(bucket, path, minutes));
+    }
+
+    @Override
+    public boolean deleteObject(String bucket, String path) {
+        try {
+            return traced("delete", bucket, path, () -> delegate.deleteObject(bucket, path));
+        } finally {
+            invalidateObject(bucket, path);
+        }
+    }
+
+    @Override
+    public void moveObject(String fromBucket, String fromPath, String toBucket, String toPath) {
+        try {
+            traced("move", fromBucket, fromPath, () -> {
+                delegate.moveObject(fromBucket, fromPath, toBucket, toPath);
+                return null;
+            });
+        } finally {
+            invalidateObject(fromBucket, fromPath);
+            invalidateObject(toBucket, toPath);
+        }
+    }
+
+    @Override
+    public void invalidateMetadata(String bucket, String prefix) {
+        existence.asMap().keySet().removeIf(key -> key.bucket().equals(bucket) && key.path().startsWith(prefix));
+        listings.asMap().keySet().removeIf(key -> key.bucket().equals(bucket)
+                && (key.path().startsWith(prefix) || prefix.startsWith(key.path())));
+        nonEmptyPrefixes.asMap().keySet().removeIf(key -> key.bucket().equals(bucket)
+                && (key.path().startsWith(prefix) || prefix.startsWith(key.path())));
+        delegate.invalidateMetadata(bucket, prefix);
+    }
+
+    /**
+     * Invalidates the existence of an object and every listing whose prefix contains it
+     */
+    private void invalidateObject(String bucket, String path) {
+        existence.invalidate(new Key(bucket, path));
+        listings.asMap().keySet().removeIf(key -> key.bucket().equals(bucket) && path.startsWith(key.path()));
+        nonEmptyPrefixes.asMap().keySet().removeIf(key -> key.bucket().equals(bucket) && path.startsWith(key.path()));
+    }
+
+    /**
+     * Runs a call to the backing provider that transfers no content, recording it as a
+     * {@link StorageCallEvent}
+     */
+    private <T, E extends Exception> T traced(String operation, String bucket, String path, StorageCall<T, E> call)
+            throws E {
+        StorageCallEvent event = StorageCallEvent.begin(operation, bucket, path);
+        T result = traced(event, call);
+        event.complete(0, true);
+        return result;
+    }
+
+    /**
+     * Runs a call to the backing provider, completing its event only if the call fails
+     */
+    private static <T, E extends Exception> T traced(StorageCallEvent event, StorageCall<T, E> call) throws E {
+        boolean succeeded = false;
+        try {
+            T result = call.call();
+            succeeded = true;
+            return result;
+        } finally {
+            if (!succeeded) {
+                event.complete(0, false);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface StorageCall<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    /**
+     * Counts the bytes written by the backing provider
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+
+    private record Key(String bucket, String path) {
+    }
+
+    /**
+     * Expires negative results (missing objects, empty listings) sooner than positive ones
+     */
+    private record NegativeAwareExpiry<V>(Predicate<V> negative, long ttlNanos, long negativeTtlNanos)
+            implements Expiry<Key, V> {
+
+        @Override
+        public long expireAfterCreate(Key key, V value, long currentTime) {
+            return negative.test(value) ? negativeTtlNanos : ttlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Key key, V value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Key key, V value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
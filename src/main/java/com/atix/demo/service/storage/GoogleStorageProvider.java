@@ -1,24 +1,46 @@
 package com.atix.demo.service.storage;
 
+import com.google.auth.Credentials;
+import com.google.auth.ServiceAccountSigner;
+import com.google.cloud.ReadChannel;
 import com.google.cloud.storage.*;
 import com.j256.simplemagic.ContentInfo;
 import com.j256.simplemagic.ContentInfoUtil;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.TimeUnit;
 
 @Service
+@Qualifier(CachingStorageProvider.BACKING_STORAGE_PROVIDER)
+@ConditionalOnProperty(name = "storage.provider", havingValue = "google", matchIfMissing = true)
 public class GoogleStorageProvider implements StorageProvider {
 
     private final Storage googleStorage;
+    /**
+     * Signer resolved once from the client credentials and reused for every signed URL.
+     * {@code null} if the credentials cannot sign, in which case the client resolves it
+     */
+    private final ServiceAccountSigner signer;
 
     public GoogleStorageProvider() {
         googleStorage = StorageOptions.getDefaultInstance().getService();
+        Credentials credentials = googleStorage.getOptions().getCredentials();
+        signer = credentials instanceof ServiceAccountSigner serviceAccountSigner ? serviceAccountSigner : null;
     }
 
     @Override
@@ -30,16 +52,47 @@ public class GoogleStorageProvider implements StorageProvider {
     public InputStream getObject(String bucket, String path) {
         Blob blob = googleStorage.get(BlobId.of(bucket, path));
         if (blob != null) {
-            return new ByteArrayInputStream(blob.getContent(Blob.BlobSourceOption.generationMatch()));
+            return Channels.newInputStream(blob.reader(Blob.BlobSourceOption.generationMatch()));
         }
         return new ByteArrayInputStream(new byte[0]);
     }
 
+    @Override
+    public InputStream openStream(String bucket, String path) {
+        return Channels.newInputStream(googleStorage.reader(BlobId.of(bucket, path)));
+    }
+
+    @Override
+    public InputStream getObjectRange(String bucket, String path, long offset, long length) throws IOException {
+        ReadChannel reader = googleStorage.reader(BlobId.of(bucket, path));
+        try {
+            reader.seek(offset);
+            reader.limit(offset + length);
+        } catch (IOException | RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+        return Channels.newInputStream(reader);
+    }
+
+    @Override
+    public SpilledObject spillToTempFile(String bucket, String path) throws IOException {
+        Path file = Files.createTempFile("storage-", ".tmp");
+        try {
+            googleStorage.downloadTo(BlobId.of(bucket, path), file);
+        } catch (RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return new SpilledObject(file);
+    }
+
     @Override
     public String getDownloadSignedUrl(String bucket, String path, long minutes) {
         if (minutes < 0)
             throw new IllegalArgumentException("La fecha de expiración no puede ser anterior a la fecha actual");
-        return googleStorage.signUrl(BlobInfo.newBuilder(bucket, path).build(), minutes, TimeUnit.MINUTES).toString();
+        return googleStorage.signUrl(BlobInfo.newBuilder(bucket, path).build(), minutes, TimeUnit.MINUTES,
+                withSigner()).toString();
     }
 
     @Override
@@ -57,18 +110,58 @@ public class GoogleStorageProvider implements StorageProvider {
         extensionHeaders.put("Content-Type", info.getMimeType());
         return googleStorage
                 .signUrl(BlobInfo.newBuilder(bucket, path).build(),
-                        minutes, TimeUnit.MINUTES, Storage.SignUrlOption.httpMethod(HttpMethod.PUT),
-                        Storage.SignUrlOption.withExtHeaders(extensionHeaders),
-                        Storage.SignUrlOption.withV4Signature())
+                        minutes, TimeUnit.MINUTES, withSigner(Storage.SignUrlOption.httpMethod(HttpMethod.PUT),
+                                Storage.SignUrlOption.withExtHeaders(extensionHeaders),
+                                Storage.SignUrlOption.withV4Signature()))
                 .toString();
     }
 
+    /**
+     * Adds the option that makes the client sign with the cached signer, if there is one
+     */
+    private Storage.SignUrlOption[] withSigner(Storage.SignUrlOption... options) {
+        if (signer == null) {
+            return options;
+        }
+        Storage.SignUrlOption[] result = Arrays.copyOf(options, options.length + 1);
+        result[options.length] = Storage.SignUrlOption.signWith(signer);
+        return result;
+    }
+
     @Override
     public Object listFiles(String bucket, String directoryPrefix) {
         return googleStorage.list(bucket, Storage.BlobListOption.prefix(directoryPrefix),
                 Storage.BlobListOption.currentDirectory());
     }
 
+    @Override
+    public List<String> listObjectNames(String bucket, String directoryPrefix) {
+        List<String> names = new ArrayList<>();
+        for (Blob blob : googleStorage.list(bucket, Storage.BlobListOption.prefix(directoryPrefix),
+                Storage.BlobListOption.currentDirectory()).iterateAll()) {
+            if (!blob.isDirectory()) {
+                names.add(blob.getName());
+            }
+        }
+        Collections.sort(names);
+        return names;
+    }
+
+    /**
+     * Requests one blob per page and stops at the first object, so that only prefixes
+     * holding subdirectories need more than one request
+     */
+    @Override
+    public boolean hasObjects(String bucket, String directoryPrefix) {
+        for (Blob blob : googleStorage.list(bucket, Storage.BlobListOption.prefix(directoryPrefix),
+                Storage.BlobListOption.currentDirectory(), Storage.BlobListOption.pageSize(1)).iterateAll()) {
+            if (!blob.isDirectory()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public boolean deleteObject(String bucket, String path) {
         return googleStorage.delete(BlobId.of(bucket, path));
@@ -76,14 +169,14 @@ public class GoogleStorageProvider implements StorageProvider {
 
     @Override
     public void moveObject(String fromBucket, String fromPath, String toBucket, String toPath) {
-        Blob blob = googleStorage.get(BlobId.of(fromBucket, fromPath));
-        blob.copyTo(toBucket, toPath);
-        blob.delete();
+        BlobId source = BlobId.of(fromBucket, fromPath);
+        googleStorage.copy(Storage.CopyRequest.of(source, BlobId.of(toBucket, toPath))).getResult();
+        googleStorage.delete(source);
     }
 
     @Override
     public boolean exists(String bucket, String path) {
-        return googleStorage.get(BlobId.of(bucket, path)) != null;
+        return googleStorage.get(BlobId.of(bucket, path), Storage.BlobGetOption.fields(Storage.BlobField.NAME)) != null;
     }
 
 }
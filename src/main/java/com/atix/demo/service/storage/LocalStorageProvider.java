@@ -0,0 +1,274 @@
+package com.atix.demo.service.storage;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * StorageProvider backed by a local (or shared) file system. Each bucket is a directory
+ * under {@code storage.local.root-directory} and object paths are relative to it.
+ * <p>
+ * Reads are served through memory-mapped {@link FileChannel}s, writes go to a temporary
+ * file in {@code .staging} under the root directory, outside of every bucket, that is
+ * atomically moved into place, so listings and readers never see a partial object.
+ * Signed URLs are not supported by a file system; they are built from
+ * {@code storage.local.public-base-url} when set, or as {@code file:} URIs otherwise.
+ */
+@Service
+@Qualifier(CachingStorageProvider.BACKING_STORAGE_PROVIDER)
+@ConditionalOnProperty(name = "storage.provider", havingValue = "local")
+public class LocalStorageProvider implements StorageProvider {
+
+    private static final String STAGING_DIRECTORY = ".staging";
+    private static final String STAGING_PREFIX = ".upload-";
+    private static final String STAGING_SUFFIX = ".tmp";
+
+    private final Path rootDirectory;
+    private final Path stagingDirectory;
+    private final String publicBaseUrl;
+
+    public LocalStorageProvider(@Value("${storage.local.root-directory}") String rootDirectory,
+                                @Value("${storage.local.public-base-url:}") String publicBaseUrl) {
+        this.rootDirectory = Paths.get(rootDirectory).toAbsolutePath().normalize();
+        this.stagingDirectory = this.rootDirectory.resolve(STAGING_DIRECTORY);
+        this.publicBaseUrl = publicBaseUrl.endsWith("/")
+                ? publicBaseUrl.substring(0, publicBaseUrl.length() - 1) : publicBaseUrl;
+    }
+
+    @Override
+    public Object putObject(String bucket, String path, InputStream content, String contentType) {
+        Path target = resolve(bucket, path);
+        try {
+            Files.createDirectories(target.getParent());
+            Files.createDirectories(stagingDirectory);
+            Path temp = Files.createTempFile(stagingDirectory, STAGING_PREFIX, STAGING_SUFFIX);
+            try {
+                Files.copy(content, temp, StandardCopyOption.REPLACE_EXISTING);
+                move(temp, target);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            return target;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error writing object " + bucket + "/" + path, e);
+        }
+    }
+
+    @Override
+    public boolean exists(String bucket, String path) {
+        return Files.isRegularFile(resolve(bucket, path));
+    }
+
+    @Override
+    public InputStream getObject(String bucket, String path) {
+        Path file = resolve(bucket, path);
+        if (!Files.isRegularFile(file)) {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                return Files.newInputStream(file);
+            }
+            return new ByteBufferInputStream(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading object " + bucket + "/" + path, e);
+        }
+    }
+
+    @Override
+    public InputStream openStream(String bucket, String path) {
+        try {
+            return Files.newInputStream(resolve(bucket, path));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading object " + bucket + "/" + path, e);
+        }
+    }
+
+    @Override
+    public InputStream getObjectRange(String bucket, String path, long offset, long length) throws IOException {
+        try (FileChannel channel = FileChannel.open(resolve(bucket, path), StandardOpenOption.READ)) {
+            long start = Math.min(offset, channel.size());
+            long size = Math.min(length, channel.size() - start);
+            return new ByteBufferInputStream(channel.map(FileChannel.MapMode.READ_ONLY, start, size));
+        }
+    }
+
+    @Override
+    public SpilledObject spillToTempFile(String bucket, String path) throws IOException {
+        Path file = Files.createTempFile("storage-", ".tmp");
+        try {
+            Files.copy(resolve(bucket, path), file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return new SpilledObject(file);
+    }
+
+    @Override
+    public String getUploadSignedUrl(String bucket, String path, long minutes, Map<String, String> metadata) {
+        if (minutes < 0)
+            throw new IllegalArgumentException("La fecha de expiración no puede ser anterior a la fecha actual");
+        return buildUrl(bucket, path);
+    }
+
+    @Override
+    public String getDownloadSignedUrl(String bucket, String path, long minutes) {
+        if (minutes < 0)
+            throw new IllegalArgumentException("La fecha de expiración no puede ser anterior a la fecha actual");
+        return buildUrl(bucket, path);
+    }
+
+    /**
+     * Returns the files placed directly under the prefix as a list of {@link Path}
+     */
+    @Override
+    public Object listFiles(String bucket, String directoryPrefix) {
+        Path bucketRoot = resolve(bucket, "");
+        return listObjectNames(bucket, directoryPrefix).stream()
+                .map(bucketRoot::resolve)
+                .toList();
+    }
+
+    @Override
+    public List<String> listObjectNames(String bucket, String directoryPrefix) {
+        Path bucketRoot = resolve(bucket, "");
+        int separator = directoryPrefix.lastIndexOf('/');
+        Path directory = resolve(bucket, directoryPrefix.substring(0, separator + 1));
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.walk(directory, 1)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(file -> !isStagingFile(file))
+                    .map(file -> bucketRoot.relativize(file).toString().replace('\\', '/'))
+                    .filter(name -> name.startsWith(directoryPrefix))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error listing " + bucket + "/" + directoryPrefix, e);
+        }
+    }
+
+    @Override
+    public boolean deleteObject(String bucket, String path) {
+        try {
+            return Files.deleteIfExists(resolve(bucket, path));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error deleting object " + bucket + "/" + path, e);
+        }
+    }
+
+    @Override
+    public void moveObject(String fromBucket, String fromPath, String toBucket, String toPath) {
+        Path target = resolve(toBucket, toPath);
+        try {
+            Files.createDirectories(target.getParent());
+            move(resolve(fromBucket, fromPath), target);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error moving object " + fromBucket + "/" + fromPath, e);
+        }
+    }
+
+    /**
+     * Moves a file atomically. Buckets may be mounted on different volumes, in which case
+     * the move falls back to a copy and delete
+     */
+    private void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Uploads staged next to their target by earlier versions may have been left behind
+     */
+    private static boolean isStagingFile(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(STAGING_PREFIX) && name.endsWith(STAGING_SUFFIX);
+    }
+
+    /**
+     * Resolves an object path, rejecting paths that point outside of the bucket
+     */
+    private Path resolve(String bucket, String path) {
+        Path bucketRoot = rootDirectory.resolve(bucket).normalize();
+        Path resolved = bucketRoot.resolve(path).normalize();
+        if (!bucketRoot.startsWith(rootDirectory) || bucketRoot.startsWith(stagingDirectory)
+                || !resolved.startsWith(bucketRoot)) {
+            throw new IllegalArgumentException("Ruta inválida: " + bucket + "/" + path);
+        }
+        return resolved;
+    }
+
+    private String buildUrl(String bucket, String path) {
+        if (publicBaseUrl.isEmpty()) {
+            return resolve(bucket, path).toUri().toString();
+        }
+        StringBuilder url = new StringBuilder(publicBaseUrl).append('/')
+                .append(URLEncoder.encode(bucket, StandardCharsets.UTF_8));
+        for (String segment : path.split("/")) {
+            url.append('/').append(URLEncoder.encode(segment, StandardCharsets.UTF_8).replace("+", "%20"));
+        }
+        return url.toString();
+    }
+
+    /**
+     * InputStream over a (memory-mapped) buffer
+     */
+    private static class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(len, buffer.remaining());
+            buffer.get(b, off, count);
+            return count;
+        }
+
+        @Override
+        public long skip(long n) {
+            int count = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.atix.demo.service.storage;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+/**
+ * Cache of signed URLs, keyed by bucket, path, HTTP method and validity. A signed URL is
+ * reused only while it still has at least {@code 1 - reuseFraction} of its validity left,
+ * and it is evicted after that, so callers always get a URL that will remain valid for a
+ * reasonable time.
+ */
+@Component
+public class SignedUrlCache {
+
+    private final Cache<Key, String> signedUrls;
+
+    public SignedUrlCache(@Value("${storage.signed-url-cache.maximum-size:10000}") long maximumSize,
+            @Value("${storage.signed-url-cache.reuse-fraction:0.5}") double reuseFraction) {
+        this.signedUrls = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new ReuseWindowExpiry(reuseFraction))
+                .build();
+    }
+
+    /**
+     * Gets a signed URL from the cache, signing a new one if there is no reusable URL
+     *
+     * @param bucket  the bucket
+     * @param path    the path relative to the bucket
+     * @param method  the HTTP method the URL is signed for
+     * @param minutes number of minutes that the link is active
+     * @param signer  the function that signs a new URL
+     * @return the signed URL
+     */
+    public String getOrSign(String bucket, String path, String method, long minutes, Supplier<String> signer) {
+        return signedUrls.get(new Key(bucket, path, method, minutes), key -> signer.get());
+    }
+
+    private record Key(String bucket, String path, String method, long minutes) {
+    }
+
+    /**
+     * Expires each URL once the configured fraction of its validity has elapsed
+     */
+    private record ReuseWindowExpiry(double reuseFraction) implements Expiry<Key, String> {
+
+        @Override
+        public long expireAfterCreate(Key key, String value, long currentTime) {
+            return (long) (TimeUnit.MINUTES.toNanos(key.minutes()) * reuseFraction);
+        }
+
+        @Override
+        public long expireAfterUpdate(Key key, String value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Key key, String value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
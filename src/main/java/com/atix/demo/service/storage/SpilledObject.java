@@ -0,0 +1,57 @@
+package com.atix.demo.service.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A copy of a stored object in a local temporary file, so that large objects can be
+ * processed without holding them on the heap. The file is deleted when the object is
+ * closed.
+ */
+public class SpilledObject implements Closeable {
+
+    private final Path file;
+
+    public SpilledObject(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * @return the location of the temporary file
+     */
+    public Path getPath() {
+        return file;
+    }
+
+    /**
+     * @return the size of the object in bytes
+     * @throws IOException if the file cannot be read
+     */
+    public long size() throws IOException {
+        return Files.size(file);
+    }
+
+    /**
+     * Maps the file into memory. The contents are paged in by the operating system as they
+     * are read, outside of the Java heap. The mapping remains valid after the channel used
+     * to create it is closed, but must not be used after this object is closed
+     *
+     * @return a read-only view of the object
+     * @throws IOException if the file cannot be mapped
+     */
+    public MappedByteBuffer map() throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        Files.deleteIfExists(file);
+    }
+}
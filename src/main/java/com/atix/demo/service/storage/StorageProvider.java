@@ -1,6 +1,12 @@
 package com.atix.demo.service.storage;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -39,6 +45,55 @@ public interface StorageProvider {
      */
     InputStream getObject(String bucket, String path);
 
+    /**
+     * Opens a stream that reads an object incrementally from the Cloud Storage, without
+     * loading the whole object in memory. The caller must close the stream
+     *
+     * @param bucket the Cloud bucket
+     * @param path   the path relative to the bucket to be retrieved
+     * @return an {@link InputStream} with the contents of the object
+     */
+    default InputStream openStream(String bucket, String path) {
+        return getObject(bucket, path);
+    }
+
+    /**
+     * Retrieves a range of bytes of an object. The caller must close the stream
+     *
+     * @param bucket the Cloud bucket
+     * @param path   the path relative to the bucket to be retrieved
+     * @param offset position of the first byte to be read
+     * @param length maximum number of bytes to be read
+     * @return an {@link InputStream} with the requested range of the object
+     * @throws IOException if there is an error reading the object
+     */
+    default InputStream getObjectRange(String bucket, String path, long offset, long length) throws IOException {
+        try (InputStream content = openStream(bucket, path)) {
+            content.skipNBytes(offset);
+            return new ByteArrayInputStream(content.readNBytes(Math.toIntExact(length)));
+        }
+    }
+
+    /**
+     * Copies an object into a local temporary file, so that it can be processed or
+     * memory-mapped without holding it on the heap
+     *
+     * @param bucket the Cloud bucket
+     * @param path   the path relative to the bucket to be retrieved
+     * @return the local copy of the object. It must be closed to delete the file
+     * @throws IOException if there is an error copying the object
+     */
+    default SpilledObject spillToTempFile(String bucket, String path) throws IOException {
+        Path file = Files.createTempFile("storage-", ".tmp");
+        try (InputStream content = openStream(bucket, path)) {
+            Files.copy(content, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return new SpilledObject(file);
+    }
+
     /**
      * Creates a signed link for uploading an object
      *
@@ -64,6 +119,28 @@ public interface StorageProvider {
      */
     Object listFiles(String bucket, String directoryPrefix);
 
+    /**
+     * Lists the objects placed directly under a prefix, excluding directories. Unlike
+     * {@link #listFiles(String, String)}, the result does not depend on the vendor
+     *
+     * @param bucket          The name of the storage bucket.
+     * @param directoryPrefix The prefix of the directory to list files from.
+     * @return the paths relative to the bucket of the objects found, sorted by name
+     */
+    List<String> listObjectNames(String bucket, String directoryPrefix);
+
+    /**
+     * Checks whether there is any object placed directly under a prefix, excluding
+     * directories. Providers should stop at the first object instead of listing them all
+     *
+     * @param bucket          The name of the storage bucket.
+     * @param directoryPrefix The prefix of the directory to look in.
+     * @return {@code true} if {@link #listObjectNames(String, String)} would not be empty
+     */
+    default boolean hasObjects(String bucket, String directoryPrefix) {
+        return !listObjectNames(bucket, directoryPrefix).isEmpty();
+    }
+
     /**
      * Creates a signed link for downloading an object
      *
@@ -95,4 +172,15 @@ public interface StorageProvider {
      * @param toPath     the destiny path in the bucket
      */
     void moveObject(String fromBucket, String fromPath, String toBucket, String toPath);
+
+    /**
+     * Discards any metadata (existence, listings) cached for the objects under a prefix,
+     * e.g. after being notified that they were written by another process. Providers
+     * that do not cache metadata ignore the call
+     *
+     * @param bucket the bucket
+     * @param prefix the prefix of the paths whose metadata is discarded
+     */
+    default void invalidateMetadata(String bucket, String prefix) {
+    }
 }
@@ -1,14 +1,21 @@
 package com.atix.demo.utils;
 
+import com.atix.demo.domain.ConcentrationMean;
 import com.atix.demo.domain.DocumentTemplate;
 import com.atix.demo.repository.DocumentTemplateRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 @Configuration
 public class DataInitializer {
 
+    private static final Logger logger = LoggerFactory.getLogger(DataInitializer.class);
+
     @Bean
     CommandLineRunner initDatabase(DocumentTemplateRepository repository) {
         return args -> {
@@ -22,4 +29,23 @@ public class DataInitializer {
             }
         };
     }
+
+    /**
+     * Alinea la secuencia de ConcentrationMean con los identificadores ya existentes, que
+     * fueron generados con IDENTITY antes de usar la secuencia. En MySQL Hibernate emula la
+     * secuencia con la tabla ConcentrationMean_seq; en bases con secuencias nativas la tabla
+     * no existe y no hay nada que alinear.
+     */
+    @Bean
+    CommandLineRunner alignConcentrationMeanSequence(JdbcTemplate jdbcTemplate) {
+        return args -> {
+            try {
+                jdbcTemplate.update("UPDATE ConcentrationMean_seq SET next_val = GREATEST(next_val, "
+                        + "(SELECT COALESCE(MAX(id), 0) + ? FROM ConcentrationMean))",
+                        2 * ConcentrationMean.ID_ALLOCATION_SIZE);
+            } catch (DataAccessException e) {
+                logger.warn("No se alineó la secuencia de ConcentrationMean: {}", e.getMessage());
+            }
+        };
+    }
 }
@@ -0,0 +1,202 @@
+package com.atix.demo.utils.extraction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.xirius.seiz.core.extraction.fields.FieldResponse;
+
+/**
+ * Index of the responses of a single extraction. It is built once, in one pass over the
+ * responses, and then answers lookups by field name, by table cell and by page without
+ * scanning the responses again. It should be shared by every stage that reads the
+ * responses of the same extraction, instead of using the filters of {@link FieldUtils}
+ * repeatedly.
+ * <p>
+ * A simple field that appears more than once makes {@link #getSimpleFields()} fail, as
+ * collecting the simple fields into a map by name did before. When a table cell appears
+ * more than once the first response in extraction order wins, as in
+ * {@link FieldUtils#getTableElement(List, int, int)}. Every duplicate remains available
+ * through {@link #getByFieldName(String)}.
+ * <p>
+ * The index is read-only once built and can be used from multiple threads.
+ */
+public class FieldResponseIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(FieldResponseIndex.class);
+    private static final String CELL_SEPARATOR = ":";
+
+    private final List<FieldResponse> responses;
+    private final Map<String, List<FieldResponse>> byFieldName = new LinkedHashMap<>();
+    private final Map<String, FieldResponse> simpleFields = new HashMap<>();
+    private String duplicateSimpleField;
+    private final Map<String, List<FieldResponse>> bySubFieldId = new HashMap<>();
+    private final Map<String, FieldResponse> cells = new HashMap<>();
+    private final Map<Integer, List<FieldResponse>> byPage = new HashMap<>();
+    private final Map<String, List<FieldResponse>> patternQueries = new ConcurrentHashMap<>();
+
+    private FieldResponseIndex(List<FieldResponse> responses) {
+        this.responses = Collections.unmodifiableList(responses);
+        for (FieldResponse response : responses) {
+            String fieldName = response.getFieldName();
+            String subFieldId = response.getSubFieldId();
+            byFieldName.computeIfAbsent(fieldName, k -> new ArrayList<>()).add(response);
+            byPage.computeIfAbsent(response.getPageNumber(), k -> new ArrayList<>()).add(response);
+            if (subFieldId == null) {
+                if (simpleFields.putIfAbsent(fieldName, response) != null && duplicateSimpleField == null) {
+                    duplicateSimpleField = fieldName;
+                }
+            } else {
+                bySubFieldId.computeIfAbsent(subFieldId, k -> new ArrayList<>()).add(response);
+                if (cells.putIfAbsent(cellKey(fieldName, subFieldId), response) != null) {
+                    logger.debug("Duplicate response for cell [{}] of field [{}], keeping the first one",
+                            subFieldId, fieldName);
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the index of a list of responses
+     *
+     * @param responses the list of responses
+     * @return the index
+     */
+    public static FieldResponseIndex of(List<FieldResponse> responses) {
+        return new FieldResponseIndex(responses == null ? List.of() : responses);
+    }
+
+    /**
+     * @return every indexed response, in extraction order
+     */
+    public List<FieldResponse> getResponses() {
+        return responses;
+    }
+
+    /**
+     * Gets the simple fields, i.e. those without subfield ID, by their field name
+     *
+     * @return an unmodifiable map of the simple fields
+     * @throws IllegalStateException if a field name appears more than once
+     */
+    public Map<String, FieldResponse> getSimpleFields() {
+        if (duplicateSimpleField != null) {
+            throw new IllegalStateException("Duplicate key " + duplicateSimpleField);
+        }
+        return Collections.unmodifiableMap(simpleFields);
+    }
+
+    /**
+     * @param fieldName the field name
+     * @return the first simple field with that name, or {@code null} if there is none
+     */
+    public FieldResponse getSimpleField(String fieldName) {
+        return simpleFields.get(fieldName);
+    }
+
+    /**
+     * @param fieldName the field name
+     * @return every response with that field name. Never {@code null}
+     */
+    public List<FieldResponse> getByFieldName(String fieldName) {
+        return unmodifiable(byFieldName.get(fieldName));
+    }
+
+    /**
+     * @param subFieldId the subfield ID
+     * @return every response with that subfield ID, of any field. Never {@code null}
+     */
+    public List<FieldResponse> getBySubFieldId(String subFieldId) {
+        return unmodifiable(bySubFieldId.get(subFieldId));
+    }
+
+    /**
+     * Gets a cell of a table field. This is based in the structure of the subFieldId
+     * created by the TableFieldExtractor
+     *
+     * @param fieldName the field name of the table
+     * @param row       the row of the cell
+     * @param col       the column of the cell
+     * @return the FieldResponse corresponding to the row and column, or {@code null}
+     */
+    public FieldResponse getTableElement(String fieldName, int row, int col) {
+        return cells.get(cellKey(fieldName, row + CELL_SEPARATOR + col));
+    }
+
+    /**
+     * Gets a cell of any table field. Use {@link #getTableElement(String, int, int)} if
+     * the responses have more than one table
+     *
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @return the FieldResponse corresponding to the row and column, or {@code null}
+     */
+    public FieldResponse getTableElement(int row, int col) {
+        List<FieldResponse> cell = bySubFieldId.get(row + CELL_SEPARATOR + col);
+        return cell == null ? null : cell.get(0);
+    }
+
+    /**
+     * @param page the page number
+     * @return every response extracted from that page. Never {@code null}
+     */
+    public List<FieldResponse> getByPage(int page) {
+        return unmodifiable(byPage.get(page));
+    }
+
+    /**
+     * Groups the responses by page
+     *
+     * @return an unmodifiable map of the responses, where the keys are the pages where
+     * the fields where extracted from
+     */
+    public Map<Integer, List<FieldResponse>> groupByPage() {
+        return Collections.unmodifiableMap(byPage);
+    }
+
+    /**
+     * Gets the responses whose field name matches a pattern. The pattern is evaluated
+     * once per distinct field name and the result is memoized per pattern
+     *
+     * @param pattern the pattern the field name must match entirely
+     * @return the matching responses, in extraction order of the field names
+     */
+    public List<FieldResponse> filterByFieldname(Pattern pattern) {
+        return patternQueries.computeIfAbsent(pattern.pattern() + '/' + pattern.flags(), k -> {
+            List<FieldResponse> result = new ArrayList<>();
+            for (Map.Entry<String, List<FieldResponse>> entry : byFieldName.entrySet()) {
+                if (entry.getKey() != null && pattern.matcher(entry.getKey()).matches()) {
+                    result.addAll(entry.getValue());
+                }
+            }
+            return Collections.unmodifiableList(result);
+        });
+    }
+
+    /**
+     * Gets the responses whose field name matches a regular expression
+     *
+     * @param regex the regular expression. It is compiled only once
+     * @return the matching responses
+     * @see #filterByFieldname(Pattern)
+     */
+    public List<FieldResponse> filterByFieldname(String regex) {
+        return filterByFieldname(FieldUtils.compile(regex));
+    }
+
+    private static String cellKey(String fieldName, String subFieldId) {
+        return fieldName + '\0' + subFieldId;
+    }
+
+    private static List<FieldResponse> unmodifiable(List<FieldResponse> list) {
+        return list == null ? List.of() : Collections.unmodifiableList(list);
+    }
+}
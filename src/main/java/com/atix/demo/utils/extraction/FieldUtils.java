@@ -3,7 +3,9 @@ package com.atix.demo.utils.extraction;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BinaryOperator;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import com.xirius.seiz.core.extraction.fields.FieldResponse;
@@ -13,6 +15,23 @@ import com.xirius.seiz.core.extraction.fields.FieldResponse;
  */
 public class FieldUtils {
 
+    /**
+     * Maximum number of compiled patterns kept by {@link #compile(String)}
+     */
+    private static final int MAX_CACHED_PATTERNS = 256;
+    private static final Map<String, Pattern> PATTERNS = new ConcurrentHashMap<>();
+
+    /**
+     * Builds an index of the responses, to perform many lookups over the same
+     * responses without scanning them again
+     *
+     * @param responses the list of responses
+     * @return the index of the responses
+     */
+    public static FieldResponseIndex index(List<FieldResponse> responses) {
+        return FieldResponseIndex.of(responses);
+    }
+
     /**
      * Gets a cell from a list of field responses. This is based in the structure of
      * the subFieldId created by the TableFieldExtractor. You should first filter
@@ -25,8 +44,13 @@ public class FieldUtils {
      * @return the FieldResponse corresponding to the row and column
      */
     public static FieldResponse getTableElement(List<FieldResponse> responses, int row, int col) {
-        List<FieldResponse> cell = filterBySubFieldId(responses, row + ":" + col);
-        return (cell == null || cell.isEmpty()) ? null : cell.get(0);
+        String subFieldId = row + ":" + col;
+        for (FieldResponse response : responses) {
+            if (subFieldId.equals(response.getSubFieldId())) {
+                return response;
+            }
+        }
+        return null;
     }
 
     /**
@@ -48,7 +72,9 @@ public class FieldUtils {
      * @return the filtered list of responses
      */
     public static List<FieldResponse> filterByFieldname(List<FieldResponse> responses, String regex) {
-        return responses.stream().filter(x -> x.getFieldName().matches(regex)).collect(Collectors.toList());
+        Pattern pattern = compile(regex);
+        return responses.stream().filter(x -> pattern.matcher(x.getFieldName()).matches())
+                .collect(Collectors.toList());
     }
 
     /**
@@ -59,7 +85,8 @@ public class FieldUtils {
      * @return the filtered list of responses
      */
     public static List<FieldResponse> filterBySubFieldId(List<FieldResponse> responses, String regex) {
-        return responses.stream().filter(x -> x.getSubFieldId() != null && x.getSubFieldId().matches(regex))
+        Pattern pattern = compile(regex);
+        return responses.stream().filter(x -> x.getSubFieldId() != null && pattern.matcher(x.getSubFieldId()).matches())
                 .collect(Collectors.toList());
     }
 
@@ -126,4 +153,21 @@ public class FieldUtils {
         return responses.stream()
                 .collect(Collectors.toMap(FieldResponse::getFieldName, x -> x, (a1, a2) -> a1));
     }
+
+    /**
+     * Compiles a regular expression, reusing the patterns that were already compiled
+     *
+     * @param regex the regular expression
+     * @return the compiled pattern
+     */
+    static Pattern compile(String regex) {
+        Pattern pattern = PATTERNS.get(regex);
+        if (pattern == null) {
+            pattern = Pattern.compile(regex);
+            if (PATTERNS.size() < MAX_CACHED_PATTERNS) {
+                PATTERNS.putIfAbsent(regex, pattern);
+            }
+        }
+        return pattern;
+    }
 }
@@ -0,0 +1,113 @@
+package com.atix.demo.utils.extraction;
+
+import java.math.BigDecimal;
+
+/**
+ * Parser of numeric values read by the OCR, e.g. element concentrations. It scans the
+ * characters once, without regular expressions or intermediate strings:
+ * <ul>
+ * <li>Characters before the first digit (labels, units, OCR noise) are skipped.</li>
+ * <li>Whitespace inside the number is ignored, since the OCR may split digits.</li>
+ * <li>Either {@code '.'} or {@code ','} is accepted as decimal separator. Only the first
+ * separator is taken into account; the number ends at the next non-digit character.</li>
+ * </ul>
+ * For example {@code "Au: 12,5 g/t"} is parsed as {@code 12.5} and {@code "1 0.25%"} as
+ * {@code 10.25}.
+ */
+public class NumericFieldParser {
+
+    /**
+     * Maximum number of digits accumulated in a {@code long} without overflow
+     */
+    private static final int MAX_LONG_DIGITS = 18;
+
+    private NumericFieldParser() {
+    }
+
+    /**
+     * Parses the first number found in a value
+     *
+     * @param value the value read by the OCR
+     * @return the number, or {@code null} if the value is {@code null} or has no digits
+     */
+    public static BigDecimal parseDecimal(CharSequence value) {
+        if (value == null) {
+            return null;
+        }
+        int length = value.length();
+        int start = 0;
+        while (start < length && !isDigit(value.charAt(start))) {
+            start++;
+        }
+        if (start == length) {
+            return null;
+        }
+
+        long unscaled = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean fraction = false;
+        StringBuilder overflow = null;
+        for (int i = start; i < length; i++) {
+            char c = value.charAt(i);
+            if (isDigit(c)) {
+                if (digits == 0 && c == '0' && !fraction) {
+                    continue; // Leading zeros are not significant
+                }
+                if (overflow != null) {
+                    overflow.append(c);
+                } else if (digits == MAX_LONG_DIGITS) {
+                    overflow = new StringBuilder(32).append(unscaled).append(c);
+                } else {
+                    unscaled = unscaled * 10 + (c - '0');
+                }
+                digits++;
+                if (fraction) {
+                    scale++;
+                }
+            } else if (Character.isWhitespace(c)) {
+                continue;
+            } else if (!fraction && (c == '.' || c == ',') && i + 1 < length && isDigit(value.charAt(i + 1))) {
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+        if (overflow != null) {
+            return new BigDecimal(overflow.toString()).movePointLeft(scale);
+        }
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+
+    /**
+     * Removes the whitespace of a value
+     *
+     * @param value the value
+     * @return the value without whitespace. The same instance is returned if it has none
+     */
+    public static String removeWhitespace(String value) {
+        if (value == null) {
+            return null;
+        }
+        int length = value.length();
+        int i = 0;
+        while (i < length && !Character.isWhitespace(value.charAt(i))) {
+            i++;
+        }
+        if (i == length) {
+            return value;
+        }
+        StringBuilder result = new StringBuilder(length).append(value, 0, i);
+        for (; i < length; i++) {
+            char c = value.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
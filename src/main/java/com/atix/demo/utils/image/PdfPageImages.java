@@ -0,0 +1,186 @@
+package com.atix.demo.utils.image;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.atix.demo.service.extraction.core.RasterizationPlan;
+import com.xirius.seiz.core.commons.model.ImageSeiz;
+
+/**
+ * List of the page images of a PDF that renders each page only when it is first
+ * accessed, at the resolution given by a {@link RasterizationPlan}. The list has one
+ * element per page, so the indexes match the page numbers of the OCR document, but pages
+ * that are never read are never rendered. The plan only decides the resolution and the
+ * memory reserved for the images: a page outside the plan is still rendered when it is
+ * read, at the default resolution, and logged as a warning since its memory was not
+ * reserved.
+ *
+ * <p>
+ * The underlying {@link PDDocument} (and the file it is read from, if any) is kept open
+ * until {@link #close()} is called.
+ * Rendering is serialized because {@link PDDocument} is not thread safe.
+ */
+public class PdfPageImages extends AbstractList<ImageSeiz> implements RandomAccess, Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(PdfPageImages.class);
+    private static final float POINTS_PER_INCH = 72f;
+
+    private final PDDocument document;
+    private final Closeable source;
+    private final PDFRenderer renderer;
+    private final RasterizationPlan plan;
+    private final String format;
+    private final ImageSeiz[] pages;
+    private final RenderListener renderListener;
+    private long renderNanos;
+
+    /**
+     * @param document the PDF document. It will be closed when this list is closed
+     * @param plan     the plan that defines the resolution of each page
+     * @param format   the format assigned to the images
+     */
+    public PdfPageImages(PDDocument document, RasterizationPlan plan, String format) {
+        this(document, plan, format, null);
+    }
+
+    /**
+     * @param document the PDF document. It will be closed when this list is closed
+     * @param plan     the plan that defines the resolution of each page
+     * @param format   the format assigned to the images
+     * @param source   the resource the document is read from (e.g. its temporary file). It
+     *                 will be closed after the document. May be {@code null}
+     */
+    public PdfPageImages(PDDocument document, RasterizationPlan plan, String format, Closeable source) {
+        this(document, plan, format, source, null);
+    }
+
+    /**
+     * @param document       the PDF document. It will be closed when this list is closed
+     * @param plan           the plan that defines the resolution of each page
+     * @param format         the format assigned to the images
+     * @param source         the resource the document is read from (e.g. its temporary file).
+     *                       It will be closed after the document. May be {@code null}
+     * @param renderListener notified of each rendered page. May be {@code null}
+     */
+    public PdfPageImages(PDDocument document, RasterizationPlan plan, String format, Closeable source,
+            RenderListener renderListener) {
+        this.document = document;
+        this.renderListener = renderListener;
+        this.source = source;
+        this.renderer = new PDFRenderer(document);
+        this.plan = plan;
+        this.format = format;
+        this.pages = new ImageSeiz[document.getNumberOfPages()];
+    }
+
+    @Override
+    public synchronized ImageSeiz get(int index) {
+        if (pages[index] == null) {
+            if (!plan.includes(index)) {
+                logger.warn("Page {} is not in the rasterization plan, rendering it at {} dpi outside of the reserved memory",
+                        index, plan.dpiFor(index));
+            }
+            try {
+                long start = System.nanoTime();
+                BufferedImage image = render(index);
+                long nanos = System.nanoTime() - start;
+                renderNanos += nanos;
+                if (renderListener != null) {
+                    // TYPE_3BYTE_BGR: 3 bytes per pixel
+                    renderListener.rendered(index, plan.dpiFor(index), 3L * image.getWidth() * image.getHeight(),
+                            nanos);
+                }
+                pages[index] = ImageSeiz.Builder.builder()
+                        .format(format)
+                        .originalImage(image)
+                        .build();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error rendering page " + index, e);
+            }
+        }
+        return pages[index];
+    }
+
+    /**
+     * @return the total time spent rendering pages so far, in nanoseconds
+     */
+    public synchronized long getRenderNanos() {
+        return renderNanos;
+    }
+
+    @Override
+    public int size() {
+        return pages.length;
+    }
+
+    /**
+     * Renders a page as a BGR image, which is the layout expected by OpenCV. The page is
+     * drawn directly into the BGR image, with the same size and white background that
+     * {@link PDFRenderer#renderImageWithDPI} would use, so no intermediate RGB copy is kept
+     */
+    private BufferedImage render(int index) throws IOException {
+        PDPage page = document.getPage(index);
+        PDRectangle cropBox = page.getCropBox();
+        float scale = plan.dpiFor(index) / POINTS_PER_INCH;
+        int width = (int) Math.max(Math.floor(cropBox.getWidth() * scale), 1);
+        int height = (int) Math.max(Math.floor(cropBox.getHeight() * scale), 1);
+        int rotation = page.getRotation();
+        if (rotation == 90 || rotation == 270) {
+            int swap = width;
+            width = height;
+            height = swap;
+        }
+        BufferedImage bgr = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+        Graphics2D graphics = bgr.createGraphics();
+        try {
+            graphics.setBackground(Color.WHITE);
+            graphics.clearRect(0, 0, width, height);
+            graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            renderer.renderPageToGraphics(index, graphics, scale);
+        } finally {
+            graphics.dispose();
+        }
+        return bgr;
+    }
+
+    /**
+     * Listener of the pages rendered by a {@link PdfPageImages}
+     */
+    @FunctionalInterface
+    public interface RenderListener {
+        /**
+         * @param page       the index of the page
+         * @param dpi        the resolution it was rendered at
+         * @param pixelBytes the size of the pixels of the image, in bytes
+         * @param nanos      the time spent rendering it, in nanoseconds
+         */
+        void rendered(int page, int dpi, long pixelBytes, long nanos);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            document.close();
+        } finally {
+            if (source != null) {
+                source.close();
+            }
+        }
+    }
+}
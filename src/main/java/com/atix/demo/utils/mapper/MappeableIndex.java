@@ -0,0 +1,129 @@
+package com.atix.demo.utils.mapper;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compiled dispatch index of String {@link Mappeable Mappeables}. It resolves a type to
+ * the Mappeable registered for the longest key that is a prefix of the type, the same
+ * result as {@link MappeableUtils#getExactOrPartialMatch(Map, String)}, by walking a
+ * prefix trie built once from the registered keys. The cost of a lookup depends on the
+ * length of the type and not on the number of registered keys.
+ * <p>
+ * Resolved types are memoized, up to {@code maxMemoizedTypes} distinct types, so that
+ * repeated lookups of the same type do not walk the trie again.
+ *
+ * @param <M> the type of the Mappeable
+ */
+public class MappeableIndex<M extends Mappeable<String>> {
+
+    /**
+     * Default maximum number of distinct types whose resolution is memoized
+     */
+    public static final int DEFAULT_MAX_MEMOIZED_TYPES = 1024;
+
+    private final Node<M> root = new Node<>();
+    private final Map<String, Optional<M>> resolved = new ConcurrentHashMap<>();
+    private final int maxMemoizedTypes;
+    private final LongAdder memoHits = new LongAdder();
+    private final LongAdder trieLookups = new LongAdder();
+    private final LongAdder unresolved = new LongAdder();
+    private int registeredKeys;
+
+    MappeableIndex(int maxMemoizedTypes) {
+        this.maxMemoizedTypes = maxMemoizedTypes;
+    }
+
+    /**
+     * Registers a Mappeable for a key. A later registration of the same key replaces the
+     * previous one. Only used while the index is being compiled
+     */
+    void register(String key, M mappeable) {
+        Node<M> node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.children.computeIfAbsent(key.charAt(i), c -> new Node<>());
+        }
+        if (node.value == null) {
+            registeredKeys++;
+        }
+        node.value = mappeable;
+    }
+
+    /**
+     * Gets the Mappeable registered for the longest key that is a prefix of the type
+     *
+     * @param type the type assigned to the Mappeable that is being searched
+     * @return the matching Mappeable. If no match is found then {@code null} is returned
+     */
+    public M resolve(String type) {
+        Optional<M> match = resolved.get(type);
+        if (match != null) {
+            memoHits.increment();
+            return match.orElse(null);
+        }
+        M mappeable = walk(type);
+        if (resolved.size() < maxMemoizedTypes) {
+            resolved.putIfAbsent(type, Optional.ofNullable(mappeable));
+        }
+        return mappeable;
+    }
+
+    private M walk(String type) {
+        trieLookups.increment();
+        Node<M> node = root;
+        M longestMatch = node.value;
+        for (int i = 0; i < type.length() && node != null; i++) {
+            node = node.children.get(type.charAt(i));
+            if (node != null && node.value != null) {
+                longestMatch = node.value;
+            }
+        }
+        if (longestMatch == null) {
+            unresolved.increment();
+        }
+        return longestMatch;
+    }
+
+    /**
+     * @return the number of registered keys
+     */
+    public int getRegisteredKeys() {
+        return registeredKeys;
+    }
+
+    /**
+     * @return the number of types whose resolution is currently memoized
+     */
+    public int getMemoizedTypes() {
+        return resolved.size();
+    }
+
+    /**
+     * @return the number of lookups answered from the memoized resolutions
+     */
+    public long getMemoHits() {
+        return memoHits.sum();
+    }
+
+    /**
+     * @return the number of lookups that walked the trie
+     */
+    public long getTrieLookups() {
+        return trieLookups.sum();
+    }
+
+    /**
+     * @return the number of trie walks that found no matching Mappeable
+     */
+    public long getUnresolved() {
+        return unresolved.sum();
+    }
+
+    private static class Node<M> {
+        private final Map<Character, Node<M>> children = new HashMap<>(4);
+        private M value;
+    }
+}
@@ -31,6 +31,29 @@ public class MappeableUtils {
         }
     }
 
+    /**
+     * Compiles a {@link MappeableIndex} from a list of String {@link Mappeable}. The index
+     * resolves types like {@link MappeableUtils#getExactOrPartialMatch(Map, String)}, but
+     * without scanning every registered key on each lookup, so it should be preferred by
+     * buses that resolve a Mappeable per request
+     *
+     * @param <M>  the type of the Mappeable
+     * @param objs the list of Mappeables
+     * @return the compiled index
+     */
+    public static <M extends Mappeable<String>> MappeableIndex<M> compileIndex(List<? extends M> objs) {
+        MappeableIndex<M> index = new MappeableIndex<>(MappeableIndex.DEFAULT_MAX_MEMOIZED_TYPES);
+        for (M obj : objs) {
+            if (obj.getSupportedTypes() == null)
+                continue;
+            for (String id : obj.getSupportedTypes()) {
+                logger.info("Bean of type {} registered for {}", obj.getClass(), id);
+                index.register(id, obj);
+            }
+        }
+        return index;
+    }
+
     /**
      * Gets the matching {@link Mappeable} from a map. This is used
      * only for String Mappeables, and will return an exact match, if it
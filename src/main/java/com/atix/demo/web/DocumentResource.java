@@ -3,19 +3,30 @@ package com.atix.demo.web;
 import lombok.AllArgsConstructor;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.UUID;
 
 import org.springframework.data.util.Pair;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.atix.demo.domain.exceptions.ExtractionCapacityExceededException;
+import com.atix.demo.dto.BatchExtRequestDTO;
 import com.atix.demo.dto.ConcentrationMeanDTO;
 import com.atix.demo.dto.DetectDocResponse;
 import com.atix.demo.dto.DetectUrlRequest;
 import com.atix.demo.dto.ExtRequestDTO;
 import com.atix.demo.dto.ExtResponseDTO;
+import com.atix.demo.dto.ExtractionJobDTO;
 import com.atix.demo.service.ConcentrationMeanService;
 import com.atix.demo.service.document.DetectDocumentService;
 import com.atix.demo.service.extraction.core.GeneralExtractionService;
+import com.atix.demo.service.extraction.job.BatchExtractionService;
+import com.atix.demo.service.extraction.job.ExtractionJobService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 
 @AllArgsConstructor
@@ -26,6 +37,9 @@ public class DocumentResource {
     private final DetectDocumentService detectDocumentService;
     private final GeneralExtractionService generalExtractionService;
     private final ConcentrationMeanService concentrationMeanService;
+    private final ExtractionJobService extractionJobService;
+    private final BatchExtractionService batchExtractionService;
+    private final ObjectMapper objectMapper;
 
 
     @PostMapping("/upload-link")
@@ -36,8 +50,57 @@ public class DocumentResource {
     @PostMapping("/extract")
     public ResponseEntity<ExtResponseDTO> extract(@RequestBody ExtRequestDTO request)
             throws IOException, InterruptedException {
-        Pair<ConcentrationMeanDTO, ExtResponseDTO> data = generalExtractionService.extractAndFormat(request, false);
-        return ResponseEntity.ok(data.getSecond());
+        try {
+            Pair<ConcentrationMeanDTO, ExtResponseDTO> data = generalExtractionService.extractAndFormat(request, false);
+            return ResponseEntity.ok(data.getSecond());
+        } catch (ExtractionCapacityExceededException e) {
+            e.logException();
+            return ResponseEntity.status(e.getHttpStatus()).build();
+        }
+    }
+
+    @PostMapping("/extract/jobs")
+    public ResponseEntity<ExtractionJobDTO> submitExtraction(@RequestBody ExtRequestDTO request) {
+        try {
+            ExtractionJobDTO job = extractionJobService.submit(request);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/v1/extract/jobs/" + job.getJobId()))
+                    .body(job);
+        } catch (ExtractionCapacityExceededException e) {
+            e.logException();
+            return ResponseEntity.status(e.getHttpStatus()).build();
+        }
+    }
+
+    @PostMapping(value = "/extract/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> extractBatch(@RequestBody BatchExtRequestDTO request) {
+        StreamingResponseBody body = outputStream -> {
+            try {
+                batchExtractionService.extractBatch(request.getRequests(), request.getParallelism(), result -> {
+                    try {
+                        outputStream.write(objectMapper.writeValueAsBytes(result));
+                        outputStream.write('\n');
+                        outputStream.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping("/extract/jobs/{jobId}")
+    public ResponseEntity<ExtractionJobDTO> getExtraction(@PathVariable UUID jobId) {
+        return ResponseEntity.of(extractionJobService.getJob(jobId));
+    }
+
+    @PostMapping("/ocr-ready/{idFile}")
+    public ResponseEntity<Void> ocrReady(@PathVariable String idFile) {
+        detectDocumentService.notifyOcrCompleted(idFile);
+        return ResponseEntity.accepted().build();
     }
 }
 
@@ -0,0 +1,283 @@
+package com.atix.demo.load;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.atix.demo.domain.Document;
+import com.atix.demo.service.document.DocumentService;
+import com.atix.demo.service.storage.StorageProvider;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+/**
+ * Load test of {@code POST /api/v1/extract}. The application runs with local storage and H2
+ * (profile {@code loadtest}), seeded with synthetic PDFs and OCR results, and is driven by
+ * concurrent clients with a configurable mix of requests. It reports throughput, latency
+ * percentiles, heap and thread usage and the latency of each stage of the extraction.
+ * <p>
+ * It is excluded from the regular build; run it with {@code mvn -Pload-test test}, and
+ * change the mix with {@code -Dloadtest.concurrency=32 -Dloadtest.requests=5000} etc. By
+ * default the documents are reused across requests, so most requests hit the caches of
+ * documents and OCR results; {@code -Dloadtest.cold-documents=true} seeds one document per
+ * request instead, and {@code -Docr.cache.enabled=false} disables the OCR cache.
+ * <p>
+ * The clients run in the same JVM as the application, so the heap, GC and thread figures
+ * include the load generator. The report is logged and written to
+ * {@code target/loadtest-report.txt}.
+ */
+@Tag("load")
+@ActiveProfiles("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ExtractionLoadTests {
+
+	private static final Logger logger = LoggerFactory.getLogger(ExtractionLoadTests.class);
+	private static final String TEMPLATE = "ConcentrationMeanTemplate";
+	private static final Path REPORT = Path.of("target", "loadtest-report.txt");
+	private static final String FOLDER_ROOT = "detect/";
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private StorageProvider storageProvider;
+
+	@Autowired
+	private DocumentService documentService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${cloud.buckets.docs}")
+	private String bucketDocs;
+
+	@Value("${cloud.buckets.ocr}")
+	private String bucketOcr;
+
+	@Value("${loadtest.documents}")
+	private int documents;
+
+	@Value("${loadtest.pages}")
+	private int pages;
+
+	@Value("${loadtest.concurrency}")
+	private int concurrency;
+
+	@Value("${loadtest.requests}")
+	private int requests;
+
+	@Value("${loadtest.warmup-requests}")
+	private int warmupRequests;
+
+	@Value("${loadtest.classified-fraction}")
+	private double classifiedFraction;
+
+	@Value("${loadtest.max-error-rate}")
+	private double maxErrorRate;
+
+	@Value("${loadtest.cold-documents:false}")
+	private boolean coldDocuments;
+
+	@Test
+	void extractUnderLoad() throws Exception {
+		if (coldDocuments) {
+			documents = warmupRequests + requests;
+		}
+		List<UUID> idFiles = seed();
+		HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+
+		// With cold documents the warmup and the measured run use different documents
+		List<UUID> warmupIdFiles = coldDocuments ? idFiles.subList(0, warmupRequests) : idFiles;
+		List<UUID> measuredIdFiles = coldDocuments ? idFiles.subList(warmupRequests, idFiles.size()) : idFiles;
+
+		run(client, warmupIdFiles, warmupRequests);
+		ResourceSampler sampler = ResourceSampler.start();
+		RunResult result = run(client, measuredIdFiles, requests);
+		ResourceUsage usage = sampler.stop();
+
+		String report = report(result, usage);
+		logger.info(report);
+		Files.createDirectories(REPORT.getParent());
+		Files.writeString(REPORT, report, StandardCharsets.UTF_8);
+		double errorRate = (double) result.errors() / result.latencies().length;
+		assertTrue(errorRate <= maxErrorRate, "Error rate " + errorRate + " exceeds " + maxErrorRate);
+	}
+
+	/**
+	 * Seeds the documents: their record, the PDF in the documents bucket and the OCR result in
+	 * the OCR bucket, as left by the upload and the OCR process
+	 */
+	private List<UUID> seed() throws Exception {
+		List<UUID> idFiles = new ArrayList<>(documents);
+		for (int i = 0; i < documents; i++) {
+			UUID idFile = UUID.randomUUID();
+			String fileName = "report-" + i + ".pdf";
+			String pdfPath = FOLDER_ROOT + idFile + "/" + fileName;
+			storageProvider.putObject(bucketDocs, pdfPath, new ByteArrayInputStream(LoadTestFixtures.pdf(i, pages)),
+					"application/pdf");
+			storageProvider.putObject(bucketOcr, FOLDER_ROOT + idFile + "/output-1-to-" + pages + ".json",
+					new ByteArrayInputStream(LoadTestFixtures.ocr(i, pages)), "application/json");
+			documentService.save(new Document(idFile, fileName, LocalDateTime.now(), pdfPath));
+			idFiles.add(idFile);
+		}
+		return idFiles;
+	}
+
+	private RunResult run(HttpClient client, List<UUID> idFiles, int count) throws InterruptedException {
+		long[] latencies = new long[count];
+		AtomicInteger next = new AtomicInteger();
+		AtomicLong errors = new AtomicLong();
+		URI uri = URI.create("http://localhost:" + port + "/api/v1/extract");
+		ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+		long start = System.nanoTime();
+		for (int worker = 0; worker < concurrency; worker++) {
+			Random random = new Random(worker);
+			clients.execute(() -> {
+				int i;
+				while ((i = next.getAndIncrement()) < count) {
+					UUID idFile = idFiles.get(i % idFiles.size());
+					String body = random.nextDouble() < classifiedFraction
+							? "{\"idFile\":\"" + idFile + "\"}"
+							: "{\"idFile\":\"" + idFile + "\",\"idTemplate\":\"" + TEMPLATE + "\"}";
+					HttpRequest request = HttpRequest.newBuilder(uri)
+							.header("Content-Type", "application/json")
+							.POST(HttpRequest.BodyPublishers.ofString(body))
+							.build();
+					long requestStart = System.nanoTime();
+					try {
+						HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+						if (response.statusCode() != 200) {
+							errors.incrementAndGet();
+						}
+					} catch (Exception e) {
+						errors.incrementAndGet();
+					}
+					latencies[i] = System.nanoTime() - requestStart;
+				}
+			});
+		}
+		clients.shutdown();
+		clients.awaitTermination(1, TimeUnit.HOURS);
+		return new RunResult(latencies, errors.get(), System.nanoTime() - start);
+	}
+
+	private String report(RunResult result, ResourceUsage usage) {
+		long[] sorted = result.latencies().clone();
+		Arrays.sort(sorted);
+		StringBuilder report = new StringBuilder("\n=== Extraction load test ===\n");
+		report.append(String.format(Locale.ROOT,
+				"documents=%d pages=%d concurrency=%d requests=%d classified-fraction=%.2f cold-documents=%b%n",
+				documents, pages, concurrency, sorted.length, classifiedFraction, coldDocuments));
+		report.append(String.format(Locale.ROOT, "throughput=%.1f req/s errors=%d%n",
+				sorted.length / (result.wallNanos() / 1e9), result.errors()));
+		report.append(String.format(Locale.ROOT, "latency ms: p50=%.1f p95=%.1f p99=%.1f max=%.1f%n",
+				percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99),
+				sorted[sorted.length - 1] / 1e6));
+		report.append(String.format(Locale.ROOT,
+				"heap: peak used=%d MiB max=%d MiB, gc: %d collections %d ms%n",
+				usage.peakHeapBytes() >> 20, usage.maxHeapBytes() >> 20, usage.gcCount(), usage.gcMillis()));
+		report.append(String.format(Locale.ROOT, "threads: peak=%d live at end=%d%n",
+				usage.peakThreads(), usage.liveThreads()));
+		report.append("note: the clients run in this JVM; heap, GC and threads include them\n");
+		report.append("stages, including warmup (p50 / p95 / p99 ms):\n");
+		for (Timer timer : meterRegistry.find("extraction.stage").timers()) {
+			report.append(String.format(Locale.ROOT, "  %-18s %-28s n=%-6d", timer.getId().getTag("stage"),
+					timer.getId().getTag("template"), timer.count()));
+			for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+				report.append(String.format(Locale.ROOT, " %8.1f", value.value(TimeUnit.MILLISECONDS)));
+			}
+			report.append('\n');
+		}
+		return report.toString();
+	}
+
+	private static double percentile(long[] sorted, double percentile) {
+		int index = (int) Math.ceil(percentile * sorted.length) - 1;
+		return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+	}
+
+	private record RunResult(long[] latencies, long errors, long wallNanos) {
+	}
+
+	private record ResourceUsage(long peakHeapBytes, long maxHeapBytes, long gcCount, long gcMillis,
+			int peakThreads, int liveThreads) {
+	}
+
+	/**
+	 * Samples the heap while the test runs, and the GC and thread counters at its ends
+	 */
+	private static final class ResourceSampler {
+		private static final long SAMPLE_INTERVAL_MS = 50;
+
+		private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+		private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+		private final AtomicLong peakHeap = new AtomicLong();
+		private final long gcCountAtStart = gcCount();
+		private final long gcMillisAtStart = gcMillis();
+
+		static ResourceSampler start() {
+			ResourceSampler sampler = new ResourceSampler();
+			sampler.threads.resetPeakThreadCount();
+			sampler.scheduler.scheduleAtFixedRate(() -> sampler.peakHeap.accumulateAndGet(
+					sampler.memory.getHeapMemoryUsage().getUsed(), Math::max), 0, SAMPLE_INTERVAL_MS,
+					TimeUnit.MILLISECONDS);
+			return sampler;
+		}
+
+		ResourceUsage stop() throws InterruptedException {
+			scheduler.shutdown();
+			scheduler.awaitTermination(1, TimeUnit.SECONDS);
+			return new ResourceUsage(peakHeap.get(), memory.getHeapMemoryUsage().getMax(),
+					gcCount() - gcCountAtStart, gcMillis() - gcMillisAtStart, threads.getPeakThreadCount(),
+					threads.getThreadCount());
+		}
+
+		private static long gcCount() {
+			return ManagementFactory.getGarbageCollectorMXBeans().stream()
+					.mapToLong(GarbageCollectorMXBean::getCollectionCount).filter(count -> count > 0).sum();
+		}
+
+		private static long gcMillis() {
+			return ManagementFactory.getGarbageCollectorMXBeans().stream()
+					.mapToLong(GarbageCollectorMXBean::getCollectionTime).filter(time -> time > 0).sum();
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package com.atix.demo.load;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+
+/**
+ * Synthetic documents for the load tests: a concentration report as a PDF and its OCR in
+ * the JSON shape bound to {@code DocumentSeiz}, with the keywords of
+ * {@code ConcentrationMeanTemplate} followed by their values.
+ */
+final class LoadTestFixtures {
+
+	private static final String[][] FIELDS = { { "Measuring", "Time:", "10:42" }, { "Lot", "No:", "L-%04d" },
+			{ "Work", "No:", "W-%04d" }, { "Date:", "2025-03-%02d" }, { "Time:", "08:%02d" }, { "Au", "%s" },
+			{ "Ag", "%s" }, { "Pt", "%s" }, { "Pd", "%s" }, { "Rh", "%s" }, { "Ru", "%s" }, { "Ir", "%s" },
+			{ "Cu", "%s" } };
+	private static final float PAGE_WIDTH = PDRectangle.A4.getWidth();
+	private static final float LINE_HEIGHT = 24;
+
+	private LoadTestFixtures() {
+	}
+
+	/**
+	 * Generates the PDF of a document
+	 *
+	 * @param seed  the seed of the values of the document
+	 * @param pages the number of pages
+	 * @return the PDF
+	 */
+	static byte[] pdf(int seed, int pages) throws IOException {
+		try (PDDocument document = new PDDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+			for (int page = 0; page < pages; page++) {
+				PDPage pdPage = new PDPage(PDRectangle.A4);
+				document.addPage(pdPage);
+				try (PDPageContentStream content = new PDPageContentStream(document, pdPage)) {
+					content.setFont(PDType1Font.HELVETICA, 12);
+					float y = PDRectangle.A4.getHeight() - 72;
+					for (String[] line : lines(seed)) {
+						content.beginText();
+						content.newLineAtOffset(72, y);
+						content.showText(String.join(" ", line));
+						content.endText();
+						y -= LINE_HEIGHT;
+					}
+				}
+			}
+			document.save(out);
+			return out.toByteArray();
+		}
+	}
+
+	/**
+	 * Generates the OCR of a document, with one line per field on each page
+	 *
+	 * @param seed  the seed of the values of the document
+	 * @param pages the number of pages
+	 * @return the OCR JSON, in UTF-8
+	 */
+	static byte[] ocr(int seed, int pages) {
+		Random random = new Random(seed);
+		StringBuilder json = new StringBuilder("{\"pages\":[");
+		for (int page = 0; page < pages; page++) {
+			if (page > 0) {
+				json.append(',');
+			}
+			json.append("{\"number\":").append(page + 1).append(",\"width\":").append((int) PAGE_WIDTH)
+					.append(",\"height\":").append((int) PDRectangle.A4.getHeight())
+					.append(",\"confidence\":").append(confidence(random)).append(",\"words\":[");
+			boolean first = true;
+			int row = 0;
+			for (String[] line : lines(seed)) {
+				float x = 72;
+				for (String word : line) {
+					if (!first) {
+						json.append(',');
+					}
+					first = false;
+					float width = word.length() * 7f;
+					json.append("{\"text\":\"").append(word).append("\",\"confidence\":").append(confidence(random))
+							.append(",\"box\":{\"x\":").append((int) x).append(",\"y\":").append((int) (72 + row * LINE_HEIGHT))
+							.append(",\"width\":").append((int) width).append(",\"height\":12}}");
+					x += width + 5;
+				}
+				row++;
+			}
+			json.append("]}");
+		}
+		return json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static String[][] lines(int seed) {
+		Random random = new Random(seed);
+		String[][] lines = new String[FIELDS.length][];
+		for (int i = 0; i < FIELDS.length; i++) {
+			String[] field = FIELDS[i];
+			String[] line = field.clone();
+			String value = field[field.length - 1];
+			line[line.length - 1] = value.contains("%s")
+					? String.format(Locale.ROOT, value, String.format(Locale.ROOT, "%.3f", random.nextDouble() * 100))
+					: String.format(Locale.ROOT, value, 1 + random.nextInt(28));
+			lines[i] = line;
+		}
+		return lines;
+	}
+
+	private static String confidence(Random random) {
+		return String.format(Locale.ROOT, "%.4f", 0.7 + random.nextDouble() * 0.3);
+	}
+}
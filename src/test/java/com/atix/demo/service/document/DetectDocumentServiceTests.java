@@ -0,0 +1,77 @@
+package com.atix.demo.service.document;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.atix.demo.service.metrics.ExtractionMetrics;
+import com.atix.demo.service.ocr.InMemoryOcrCompletionListener;
+import com.atix.demo.service.ocr.OcrDocumentCache;
+import com.atix.demo.service.ocr.OcrDocumentContext;
+import com.atix.demo.service.storage.LocalStorageProvider;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class DetectDocumentServiceTests {
+
+	private static final String DOCS = "docs";
+	private static final String OCR = "ocr";
+
+	@TempDir
+	Path root;
+
+	@Test
+	void notificationBeforeTheOcrExistsDoesNotSpinOnTheListing() throws Exception {
+		AtomicInteger ocrListings = new AtomicInteger();
+		LocalStorageProvider storage = new LocalStorageProvider(root.toString(), "") {
+			@Override
+			public List<String> listObjectNames(String bucket, String directoryPrefix) {
+				if (OCR.equals(bucket)) {
+					ocrListings.incrementAndGet();
+				}
+				return super.listObjectNames(bucket, directoryPrefix);
+			}
+		};
+		DetectDocumentService service = new DetectDocumentService(null, storage,
+				new InMemoryOcrCompletionListener(60), new OcrDocumentCache(false, 1, 1, 1), null,
+				new ExtractionMetrics(new SimpleMeterRegistry()));
+		ReflectionTestUtils.setField(service, "bucketDocs", DOCS);
+		ReflectionTestUtils.setField(service, "bucketOcr", OCR);
+
+		String idFile = UUID.randomUUID().toString();
+		storage.putObject(DOCS, "detect/" + idFile + "/report.pdf", new ByteArrayInputStream(new byte[1]),
+				"application/pdf");
+		// Premature notification: the OCR is not in the bucket yet
+		service.notifyOcrCompleted(idFile);
+
+		CompletableFuture<OcrDocumentContext> waiter = CompletableFuture.supplyAsync(() -> {
+			try {
+				return service.getOcrContext(idFile);
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		TimeUnit.MILLISECONDS.sleep(500);
+		int listingsWhileWaiting = ocrListings.get();
+
+		byte[] ocr = "{\"pages\":[]}".getBytes(StandardCharsets.UTF_8);
+		storage.putObject(OCR, "detect/" + idFile + "/output-1-to-1.json", new ByteArrayInputStream(ocr),
+				"application/json");
+		service.notifyOcrCompleted(idFile);
+
+		assertArrayEquals(ocr, waiter.get(10, TimeUnit.SECONDS).getContent());
+		assertTrue(listingsWhileWaiting <= 3, "OCR bucket listed " + listingsWhileWaiting + " times while waiting");
+	}
+}
@@ -0,0 +1,113 @@
+package com.atix.demo.service.extraction.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.atix.demo.utils.extraction.InterfaceAdapter;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.xirius.seiz.core.commons.model.ROI;
+import com.xirius.seiz.core.commons.model.text.DocumentSeiz;
+import com.xirius.seiz.core.extraction.fields.FieldResponse;
+import com.xirius.seiz.core.extraction.model.DocumentExtractionTemplate;
+
+class ParallelFieldExtractionServiceTests {
+
+	private static final String TEMPLATE = "ConcentrationMeanTemplate.json";
+
+	private final Gson gson = new GsonBuilder().registerTypeAdapter(ROI.class, new InterfaceAdapter<ROI>()).create();
+
+	@Test
+	void partitionedExtractionMatchesSerialExtractionOfTheShippedTemplate() throws Exception {
+		CompiledTemplate template = compileShippedTemplate();
+		assertTrue(template.getPartitions().size() > 1);
+
+		ParallelFieldExtractionService serial = new ParallelFieldExtractionService(false, 1);
+		ParallelFieldExtractionService parallel = new ParallelFieldExtractionService(true, 4);
+		try {
+			for (int seed = 1; seed <= 5; seed++) {
+				DocumentSeiz document = gson.fromJson(ocr(seed, 2), DocumentSeiz.class);
+
+				List<FieldResponse> expected = serial.extract(template, document, null);
+				List<FieldResponse> actual = parallel.extract(template, document, null);
+
+				assertEquals(gson.toJson(expected), gson.toJson(actual));
+			}
+		} finally {
+			parallel.shutdown();
+		}
+	}
+
+	/**
+	 * Builds the OCR of a document with one line per keyword of the shipped template,
+	 * followed by its value, on each page
+	 */
+	private static JsonObject ocr(int seed, int pages) {
+		Random random = new Random(seed);
+		String[][] lines = { { "Measuring", "Time:", "10:42" },
+				{ "Lot", "No:", String.format(Locale.ROOT, "L-%04d", seed) },
+				{ "Work", "No:", String.format(Locale.ROOT, "W-%04d", seed) },
+				{ "Date:", String.format(Locale.ROOT, "2025-03-%02d", 1 + seed % 28) },
+				{ "Time:", String.format(Locale.ROOT, "08:%02d", seed % 60) }, { "Au", value(random) },
+				{ "Ag", value(random) }, { "Pt", value(random) }, { "Pd", value(random) }, { "Rh", value(random) },
+				{ "Ru", value(random) }, { "Ir", value(random) }, { "Cu", value(random) } };
+		JsonArray pageArray = new JsonArray();
+		for (int page = 0; page < pages; page++) {
+			JsonArray words = new JsonArray();
+			for (int row = 0; row < lines.length; row++) {
+				int x = 72;
+				for (String text : lines[row]) {
+					int width = text.length() * 7;
+					JsonObject box = new JsonObject();
+					box.addProperty("x", x);
+					box.addProperty("y", 72 + row * 24);
+					box.addProperty("width", width);
+					box.addProperty("height", 12);
+					JsonObject word = new JsonObject();
+					word.addProperty("text", text);
+					word.addProperty("confidence", 0.7 + random.nextDouble() * 0.3);
+					word.add("box", box);
+					words.add(word);
+					x += width + 5;
+				}
+			}
+			JsonObject pageObject = new JsonObject();
+			pageObject.addProperty("number", page + 1);
+			pageObject.addProperty("width", 595);
+			pageObject.addProperty("height", 842);
+			pageObject.addProperty("confidence", 0.7 + random.nextDouble() * 0.3);
+			pageObject.add("words", words);
+			pageArray.add(pageObject);
+		}
+		JsonObject document = new JsonObject();
+		document.add("pages", pageArray);
+		return document;
+	}
+
+	private static String value(Random random) {
+		return String.format(Locale.ROOT, "%.3f", random.nextDouble() * 100);
+	}
+
+	private CompiledTemplate compileShippedTemplate() throws Exception {
+		try (Reader reader = new InputStreamReader(getClass().getClassLoader().getResourceAsStream(TEMPLATE),
+				StandardCharsets.UTF_8)) {
+			JsonObject definition = JsonParser.parseReader(reader).getAsJsonObject();
+			return CompiledTemplate.compile("ConcentrationMeanTemplate", "ConcentrationMeanTemplate", Path.of(TEMPLATE),
+					FileTime.fromMillis(0), definition, json -> gson.fromJson(json, DocumentExtractionTemplate.class));
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package com.atix.demo.service.extraction.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.junit.jupiter.api.Test;
+
+import com.atix.demo.domain.exceptions.ExtractionCapacityExceededException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RasterizationSchedulerTests {
+
+	private static final long MIB = 1 << 20;
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final RasterizationScheduler scheduler = new RasterizationScheduler(registry, 10, 50);
+
+	@Test
+	void estimatesOnlyThePlannedPages() throws IOException {
+		try (PDDocument document = new PDDocument()) {
+			for (int i = 0; i < 3; i++) {
+				document.addPage(new PDPage(new PDRectangle(72, 144)));
+			}
+			// 1x2 inches at 100 DPI: 100x200 pixels
+			RasterizationPlan plan = new RasterizationPlan(false, 0, Map.of(0, 100, 2, 100));
+
+			assertEquals(2 * 20_000 * 3, RasterizationScheduler.estimateBytes(document, plan));
+			assertEquals(0, RasterizationScheduler.estimateBytes(document, RasterizationPlan.NONE));
+		}
+	}
+
+	@Test
+	void admitsWithinTheBudgetAndReleases() {
+		RasterizationScheduler.Reservation first = scheduler.reserve(6 * MIB, "a");
+		assertEquals(6 * MIB, registry.get("rasterization.memory.reserved").gauge().value());
+
+		assertThrows(ExtractionCapacityExceededException.class, () -> scheduler.reserve(6 * MIB, "b"));
+
+		first.close();
+		first.close();
+		scheduler.reserve(6 * MIB, "c").close();
+		assertEquals(0, registry.get("rasterization.memory.reserved").gauge().value());
+		assertEquals(1, registry.get("rasterization.admissions").tag("result", "timeout").counter().count());
+	}
+
+	@Test
+	void rejectsDocumentsLargerThanTheBudget() {
+		assertThrows(ExtractionCapacityExceededException.class, () -> scheduler.reserve(11 * MIB, "a"));
+		assertEquals(1, registry.get("rasterization.admissions").tag("result", "rejected").counter().count());
+	}
+}
@@ -0,0 +1,40 @@
+package com.atix.demo.service.extraction.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.JsonParser;
+
+class TemplateKeywordIndexTests {
+
+	@Test
+	void collectsNormalizedSynonymsOfSearchStrategies() {
+		String definition = "{\"requests\":[{\"requestedFields\":[{\"fieldName\":\"LotNumber\",\"fieldData\":"
+				+ "{\"searchStrategies\":[{\"synonyms\":[\"Lot No.\", \"lot\"]}]}}]}]}";
+
+		assertEquals(Set.of("lot", "no"),
+				TemplateKeywordIndex.keywords(JsonParser.parseString(definition).getAsJsonObject()));
+	}
+
+	@Test
+	void picksTheTemplateWithTheHighestKeywordCoverage() {
+		TemplateKeywordIndex index = TemplateKeywordIndex.build(Map.of(
+				"ConcentrationMean", Set.of("measuring", "lot", "work", "au", "ag"),
+				"Assay", Set.of("assay", "lot", "sample")));
+
+		TemplateKeywordIndex.Scorer scorer = index.newScorer();
+		scorer.accept("Measuring time: 12:30");
+		scorer.accept("Lot: 44  Work No. 7");
+		scorer.accept("Au 12,5");
+		scorer.accept("LOT");
+
+		TemplateClassifier.Classification best = scorer.best();
+		assertEquals("ConcentrationMean", best.classId());
+		assertTrue(best.score() > 0.5 && best.score() < 1);
+	}
+}
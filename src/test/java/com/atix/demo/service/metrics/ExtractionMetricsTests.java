@@ -0,0 +1,57 @@
+package com.atix.demo.service.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.atix.demo.service.metrics.ExtractionMetrics.Stage;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ExtractionMetricsTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final ExtractionMetrics metrics = new ExtractionMetrics(registry);
+
+	@Test
+	void recordsStagesByTemplate() {
+		metrics.record(Stage.FIELD_EXTRACTION, "ConcentrationMeanTemplate", TimeUnit.MILLISECONDS.toNanos(5));
+		metrics.record(Stage.FIELD_EXTRACTION, "ConcentrationMeanTemplate", TimeUnit.MILLISECONDS.toNanos(15));
+		metrics.record(Stage.OCR_WAIT, null, TimeUnit.MILLISECONDS.toNanos(1));
+
+		Timer extraction = registry.get(ExtractionMetrics.STAGE_TIMER)
+				.tags("stage", "field_extraction", "template", "ConcentrationMeanTemplate").timer();
+		assertEquals(2, extraction.count());
+		assertEquals(20, extraction.totalTime(TimeUnit.MILLISECONDS), 0.001);
+		assertEquals(1, registry.get(ExtractionMetrics.STAGE_TIMER)
+				.tags("stage", "ocr_wait", "template", ExtractionMetrics.UNKNOWN_TEMPLATE).timer().count());
+	}
+
+	@Test
+	void recordsFailedStages() {
+		assertThrows(IOException.class, () -> metrics.time(Stage.OCR_DOWNLOAD, null, () -> {
+			throw new IOException("error");
+		}));
+
+		assertEquals(1, registry.get(ExtractionMetrics.STAGE_TIMER).tags("stage", "ocr_download").timer().count());
+	}
+
+	@Test
+	void tracksInFlightExtractions() {
+		Timer.Sample first = metrics.extractionStarted("id");
+		Timer.Sample second = metrics.extractionStarted("id");
+		assertEquals(2, registry.get(ExtractionMetrics.IN_FLIGHT_GAUGE).gauge().value());
+
+		metrics.extractionEnded(first, "ConcentrationMeanTemplate", "success");
+		metrics.extractionEnded(second, null, "error");
+
+		assertEquals(0, registry.get(ExtractionMetrics.IN_FLIGHT_GAUGE).gauge().value());
+		assertEquals(1, registry.get(ExtractionMetrics.EXTRACTION_TIMER)
+				.tags("template", ExtractionMetrics.UNKNOWN_TEMPLATE, "outcome", "error").timer().count());
+	}
+}
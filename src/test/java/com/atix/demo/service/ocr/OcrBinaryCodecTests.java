@@ -0,0 +1,45 @@
+package com.atix.demo.service.ocr;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.JsonParser;
+
+class OcrBinaryCodecTests {
+
+	private static final String OCR = "{\"language\":\"es\",\"pages\":["
+			+ "{\"number\":1,\"confidence\":0.9,\"words\":["
+			+ "{\"text\":\"Au\",\"confidence\":0.8,\"box\":{\"x\":-12,\"y\":40.5,\"w\":1e-3}},"
+			+ "{\"text\":\"12,5\",\"confidence\":0.6,\"flag\":true,\"note\":null}]},"
+			+ "{\"number\":2,\"words\":[{\"text\":\"Au\",\"id\":123456789012345678901234567890}]}]}";
+
+	@Test
+	void decodesTheSameTree() throws IOException {
+		byte[] binary = OcrBinaryCodec.encode(new ByteArrayInputStream(OCR.getBytes(StandardCharsets.UTF_8)));
+
+		assertEquals(JsonParser.parseString(OCR), OcrBinaryCodec.decode(binary));
+		assertTrue(binary.length < OCR.length());
+	}
+
+	@Test
+	void rebuildsTheJson() throws IOException {
+		byte[] binary = OcrBinaryCodec.encode(new ByteArrayInputStream(OCR.getBytes(StandardCharsets.UTF_8)));
+		String json = new String(OcrBinaryCodec.toJson(binary), StandardCharsets.UTF_8);
+
+		assertEquals(JsonParser.parseString(OCR), JsonParser.parseString(json));
+	}
+
+	@Test
+	void rejectsOtherContent() {
+		byte[] json = OCR.getBytes(StandardCharsets.UTF_8);
+
+		assertThrows(IllegalArgumentException.class, () -> OcrBinaryCodec.decode(json));
+	}
+}
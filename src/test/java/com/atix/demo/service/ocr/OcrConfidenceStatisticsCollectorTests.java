@@ -0,0 +1,42 @@
+package com.atix.demo.service.ocr;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+class OcrConfidenceStatisticsCollectorTests {
+
+	private static final String OCR = "{\"language\":\"en\",\"pages\":["
+			+ "{\"confidence\":0.9,\"words\":[{\"text\":\"Au\",\"confidence\":0.8,\"box\":{\"confidence\":5}},"
+			+ "{\"text\":\"12.5\",\"confidence\":0.6}]},"
+			+ "{\"words\":[{\"text\":\"Ag\",\"confidence\":1.0},{\"text\":\"x\"}]}]}";
+
+	@Test
+	void collectsGlobalAndPageStatisticsInOnePass() throws IOException {
+		OcrConfidenceStatistics stats = OcrConfidenceStatisticsCollector
+				.collect(new ByteArrayInputStream(OCR.getBytes(StandardCharsets.UTF_8)));
+
+		assertEquals(4, stats.getCount());
+		assertEquals(0.825, stats.getAverage(), 1e-9);
+		assertEquals(0.6, stats.getMin(), 1e-9);
+		assertEquals(1.0, stats.getMax(), 1e-9);
+		assertEquals(0.8, stats.getP50(), 1e-3);
+		assertEquals(2, stats.getPages().size());
+		assertEquals(0.9, stats.getPages().get(0).getPageConfidence(), 1e-9);
+		assertEquals(0.7, stats.getPages().get(0).getAverage(), 1e-9);
+		assertEquals(1, stats.getPages().get(1).getWordCount());
+	}
+
+	@Test
+	void returnsZerosWhenThereAreNoPages() throws IOException {
+		OcrConfidenceStatistics stats = OcrConfidenceStatisticsCollector
+				.collect(new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8)));
+
+		assertEquals(0, stats.getCount());
+		assertEquals(0.0, stats.getAverage());
+	}
+}
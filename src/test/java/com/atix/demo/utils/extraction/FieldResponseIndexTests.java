@@ -0,0 +1,45 @@
+package com.atix.demo.utils.extraction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.Gson;
+import com.xirius.seiz.core.extraction.fields.FieldResponse;
+
+class FieldResponseIndexTests {
+
+	private static final Gson GSON = new Gson();
+
+	@Test
+	void failsOnDuplicateSimpleFields() {
+		FieldResponse first = response("{\"fieldName\":\"LotNumber\",\"pageNumber\":1}");
+		FieldResponse second = response("{\"fieldName\":\"LotNumber\",\"pageNumber\":2}");
+
+		FieldResponseIndex index = FieldResponseIndex.of(List.of(first, second));
+
+		assertThrows(IllegalStateException.class, index::getSimpleFields);
+		assertSame(first, index.getSimpleField("LotNumber"));
+		assertEquals(List.of(first, second), index.getByFieldName("LotNumber"));
+	}
+
+	@Test
+	void keepsTheFirstDuplicateTableCell() {
+		FieldResponse first = response("{\"fieldName\":\"Elements\",\"subFieldId\":\"1:2\",\"pageNumber\":1}");
+		FieldResponse second = response("{\"fieldName\":\"Elements\",\"subFieldId\":\"1:2\",\"pageNumber\":2}");
+
+		FieldResponseIndex index = FieldResponseIndex.of(List.of(first, second));
+
+		assertSame(first, index.getTableElement("Elements", 1, 2));
+		assertSame(first, index.getTableElement(1, 2));
+		assertEquals(List.of(first, second), index.getBySubFieldId("1:2"));
+	}
+
+	private static FieldResponse response(String json) {
+		return GSON.fromJson(json, FieldResponse.class);
+	}
+}
@@ -0,0 +1,41 @@
+package com.atix.demo.utils.extraction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+
+class NumericFieldParserTests {
+
+	@Test
+	void parsesDotAndCommaDecimals() {
+		assertEquals(new BigDecimal("12.5"), NumericFieldParser.parseDecimal("12.5"));
+		assertEquals(new BigDecimal("12.5"), NumericFieldParser.parseDecimal("12,5"));
+		assertEquals(new BigDecimal("0.05"), NumericFieldParser.parseDecimal("0.05"));
+		assertEquals(new BigDecimal("7"), NumericFieldParser.parseDecimal("007"));
+	}
+
+	@Test
+	void skipsNoiseAndWhitespace() {
+		assertEquals(new BigDecimal("12.5"), NumericFieldParser.parseDecimal("Au: 12,5 g/t"));
+		assertEquals(new BigDecimal("10.25"), NumericFieldParser.parseDecimal(" 1 0.2\n5%"));
+		assertEquals(new BigDecimal("12"), NumericFieldParser.parseDecimal("12."));
+		assertEquals(new BigDecimal("1.234"), NumericFieldParser.parseDecimal("1.234,5"));
+		assertNull(NumericFieldParser.parseDecimal("n/a"));
+		assertNull(NumericFieldParser.parseDecimal(null));
+	}
+
+	@Test
+	void parsesValuesLongerThanALong() {
+		assertEquals(new BigDecimal("12345678901234567890.123"),
+				NumericFieldParser.parseDecimal("12345678901234567890.123"));
+	}
+
+	@Test
+	void removesWhitespace() {
+		assertEquals("12:30", NumericFieldParser.removeWhitespace(" 12 :\t30\n"));
+		assertEquals("abc", NumericFieldParser.removeWhitespace("abc"));
+	}
+}
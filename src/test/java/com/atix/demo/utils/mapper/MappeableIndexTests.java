@@ -0,0 +1,44 @@
+package com.atix.demo.utils.mapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class MappeableIndexTests {
+
+	private final Mappeable<String> general = () -> List.of("Concentration");
+	private final Mappeable<String> specific = () -> List.of("ConcentrationMean", "ConcentrationMeanTemplate");
+
+	@Test
+	void resolvesLikeExactOrPartialMatch() {
+		MappeableIndex<Mappeable<String>> index = MappeableUtils.compileIndex(List.of(general, specific));
+		Map<String, Mappeable<String>> map = new HashMap<>();
+		MappeableUtils.doMap(map, List.of(general, specific));
+
+		for (String type : List.of("ConcentrationMeanTemplate", "ConcentrationMeanTemplateV2",
+				"ConcentrationMea", "Concentration", "Other", "")) {
+			assertEquals(MappeableUtils.getExactOrPartialMatch(map, type), index.resolve(type), type);
+		}
+		assertEquals(3, index.getRegisteredKeys());
+	}
+
+	@Test
+	void memoizesResolvedTypes() {
+		MappeableIndex<Mappeable<String>> index = MappeableUtils.compileIndex(List.of(general, specific));
+
+		assertNull(index.resolve("Other"));
+		assertNull(index.resolve("Other"));
+		assertEquals(specific, index.resolve("ConcentrationMeanTemplate"));
+		assertEquals(specific, index.resolve("ConcentrationMeanTemplate"));
+
+		assertEquals(2, index.getTrieLookups());
+		assertEquals(2, index.getMemoHits());
+		assertEquals(1, index.getUnresolved());
+		assertEquals(2, index.getMemoizedTypes());
+	}
+}